@@ -55,6 +55,17 @@ public class AuthController {
         return this.isLoggedIn();
     }
 
+    /**
+     * Checks the credentials of a user without logging them in, for front ends serving several users at once
+     *
+     * @param username Username
+     * @param password Password
+     * @return the ID of the user, null if the credentials are wrong
+     */
+    public String authenticate(String username, String password) {
+        return this.usersManager.authenticateUser(username, password);
+    }
+
     /**
      * Logs out by resetting the current logged in user
      */
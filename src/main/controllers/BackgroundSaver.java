@@ -0,0 +1,132 @@
+package main.controllers;
+
+import main.gateways.GatewayWriter;
+import main.gateways.PendingChanges;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Writes saves to a GatewayWriter on a background thread of its own, so the thread asking for a save only pays for
+ * copying what changed. Saves asked for while a write is queued or running are coalesced into the next write.
+ */
+class BackgroundSaver {
+
+    private final GatewayWriter gateway;
+    private final ExecutorService writer;
+    private final List<Consumer<Boolean>> savingListeners;
+    private PendingChanges pending;
+    private boolean writeQueued;
+    private boolean saving;
+
+    /**
+     * @param gateway the saves are written to
+     */
+    BackgroundSaver(GatewayWriter gateway) {
+        this.gateway = gateway;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "background-saver");
+            // the flush on exit takes care of pending saves, so the thread must not keep the program running
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.savingListeners = new CopyOnWriteArrayList<>();
+        this.pending = new PendingChanges();
+    }
+
+    /**
+     * Collects a save on the calling thread and queues a write for it, unless one is already queued
+     *
+     * @param save saves the changes to the GatewayWriter it is given
+     */
+    synchronized void save(Consumer<GatewayWriter> save) {
+        save.accept(this.pending);
+        if (this.writeQueued || this.pending.isEmpty()) {
+            return;
+        }
+        this.writeQueued = true;
+        this.setSaving(true);
+        try {
+            this.writer.execute(this::write);
+        } catch (RejectedExecutionException e) {
+            // shut down already, so write on the calling thread instead
+            this.write();
+        }
+    }
+
+    private void write() {
+        PendingChanges changes;
+        synchronized (this) {
+            changes = this.pending;
+            this.pending = new PendingChanges();
+            this.writeQueued = false;
+        }
+        try {
+            changes.applyTo(this.gateway);
+        } catch (RuntimeException e) {
+            System.out.println("Could not save changes, they are kept for the next save: " + e.getMessage());
+            synchronized (this) {
+                // the managers no longer track these changes, so they are put back in front of the newer ones
+                changes.addLater(this.pending);
+                this.pending = changes;
+            }
+        }
+        synchronized (this) {
+            if (!this.writeQueued) {
+                this.setSaving(false);
+            }
+        }
+    }
+
+    /**
+     * Waits until every save asked for so far is written
+     */
+    void flush() {
+        try {
+            this.writer.submit(() -> {
+            }).get();
+        } catch (RejectedExecutionException | ExecutionException e) {
+            System.out.println("Could not flush saves: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes every save asked for so far and stops the background thread
+     */
+    void shutdown() {
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true iff a save is queued or being written
+     */
+    synchronized boolean isSaving() {
+        return this.saving;
+    }
+
+    /**
+     * @param listener told true when saving starts and false once everything is written, on the background thread
+     *                 or the thread asking for the save
+     */
+    void addSavingListener(Consumer<Boolean> listener) {
+        this.savingListeners.add(listener);
+    }
+
+    private void setSaving(boolean saving) {
+        if (this.saving == saving) {
+            return;
+        }
+        this.saving = saving;
+        for (Consumer<Boolean> listener : this.savingListeners) {
+            listener.accept(saving);
+        }
+    }
+}
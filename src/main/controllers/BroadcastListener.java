@@ -0,0 +1,26 @@
+package main.controllers;
+
+/**
+ * Told how a broadcast is getting on while it is delivered in the background.
+ * Both methods are called on the thread delivering the broadcast.
+ */
+public interface BroadcastListener {
+
+    /**
+     * Called after each batch of receivers got the message
+     *
+     * @param delivered how many receivers got the message so far
+     * @param total     how many receivers get it, each counted once
+     */
+    default void onProgress(int delivered, int total) {
+    }
+
+    /**
+     * Called once the broadcast is over
+     *
+     * @param delivered how many receivers got the message, less than total if the delivery failed
+     * @param total     how many receivers get it, each counted once
+     */
+    default void onDone(int delivered, int total) {
+    }
+}
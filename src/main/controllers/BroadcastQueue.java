@@ -0,0 +1,113 @@
+package main.controllers;
+
+import main.usecases.InboxManager;
+import main.usecases.MessageManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Delivers broadcasts on a background thread of its own, so the thread sending one, usually the Swing event
+ * thread, only pays for queueing it. A broadcast works out its receivers, each of whom gets it once, stores the
+ * message once and puts it into their inboxes a batch at a time, so that the inboxes are not locked for the whole
+ * delivery. Broadcasts are delivered one after another, in the order they were sent.
+ */
+class BroadcastQueue {
+
+    static final int BATCH_SIZE = 500;
+
+    private final MessageManager messageManager;
+    private final InboxManager inboxManager;
+    private final Runnable afterDelivery;
+    private final ExecutorService deliverer;
+
+    /**
+     * @param messageManager stores the messages
+     * @param inboxManager   holds the inboxes of the receivers
+     * @param afterDelivery  run after each broadcast is delivered, to save it
+     */
+    BroadcastQueue(MessageManager messageManager, InboxManager inboxManager, Runnable afterDelivery) {
+        this.messageManager = messageManager;
+        this.inboxManager = inboxManager;
+        this.afterDelivery = afterDelivery;
+        this.deliverer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-delivery");
+            // shutdown delivers what is queued, so the thread must not keep the program running
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a broadcast
+     *
+     * @param sender    id of the sender
+     * @param receivers works out the ids of the receivers when the broadcast is delivered; repeated ids get the
+     *                  message once
+     * @param text      of the message
+     * @param listener  told how the delivery is getting on
+     */
+    void deliver(String sender, Supplier<? extends Collection<String>> receivers, String text,
+                 BroadcastListener listener) {
+        Runnable delivery = () -> this.run(sender, receivers, text, listener);
+        try {
+            this.deliverer.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            // shut down already, so deliver on the calling thread instead
+            delivery.run();
+        }
+    }
+
+    private void run(String sender, Supplier<? extends Collection<String>> receivers, String text,
+                     BroadcastListener listener) {
+        int delivered = 0;
+        int total = 0;
+        try {
+            List<String> unique = new ArrayList<>(new LinkedHashSet<>(receivers.get()));
+            total = unique.size();
+            if (total > 0) {
+                String message = this.messageManager.createMessage(text, sender);
+                while (delivered < total) {
+                    int end = Math.min(delivered + BATCH_SIZE, total);
+                    this.inboxManager.putMessageInToInboxes(message, unique.subList(delivered, end));
+                    delivered = end;
+                    listener.onProgress(delivered, total);
+                }
+                this.afterDelivery.run();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Could not deliver broadcast: " + e.getMessage());
+        }
+        listener.onDone(delivered, total);
+    }
+
+    /**
+     * Waits until every broadcast queued so far is delivered
+     */
+    void flush() {
+        try {
+            this.deliverer.submit(() -> {
+            }).get();
+        } catch (RejectedExecutionException | ExecutionException e) {
+            System.out.println("Could not flush broadcasts: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delivers every broadcast queued so far and stops the background thread
+     */
+    void shutdown() {
+        this.deliverer.shutdown();
+        try {
+            this.deliverer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
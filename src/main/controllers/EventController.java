@@ -1,7 +1,6 @@
 package main.controllers;
 
 import main.entities.Event;
-import main.entities.Room;
 import main.usecases.*;
 
 import java.time.LocalDateTime;
@@ -57,12 +56,10 @@ public class EventController {
      */
     public String getUserEvents(String userId){
         ArrayList<String> ids = this.eventsManager.getUserEvents(userId);
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
         String s = "Events: \n";
         int num = 1;
         for (String eventId: ids){
-            EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
-            String eventInfo = eventInfoManager.toString();
+            String eventInfo = this.getSingleEventInfo(eventId);
             String eToString = "Event #" + num + " "+eventInfo + "\n";
             num += 1;
             s += eToString;
@@ -77,26 +74,14 @@ public class EventController {
      * @return a list of signed up eventIds
      */
     public ArrayList<String> getUserEventIds(String userId){
-        ArrayList<String> listOfUserEvents = new ArrayList<>();
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        for (String eventId: schedule.keySet()){
-            EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
-            List<String> attendees = eventInfoManager.getUsers();
-            if (attendees.contains(userId)){
-                listOfUserEvents.add(eventId);
-            }
-        }
-        return listOfUserEvents;
+        return this.eventsManager.getUserEvents(userId);
     }
 
     public ArrayList<String> getUserEventsList(String userId) {
         ArrayList<String> listOfUserEvents = new ArrayList<>();
         ArrayList<String> ids = this.eventsManager.getUserEvents(userId);
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
         for (String eventId: ids) {
-            EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
-            String eventInfo = eventInfoManager.toString();
-            listOfUserEvents.add(eventInfo);
+            listOfUserEvents.add(this.getSingleEventInfo(eventId));
         }
         return listOfUserEvents;
     }
@@ -107,8 +92,7 @@ public class EventController {
      * @return the room number of the event
      */
     public int getRoomNum(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, this.eventsManager);
         String roomId = eventInfoManager.getRoomId(eventId);
         return roomManager.getRoomNumGivenId(roomId);
     }
@@ -146,8 +130,7 @@ public class EventController {
      * @return ture iff the user is successfully added.
      */
     public boolean addUser(String eventId, String userId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventInfoManager.addUser(userId);
     }
 
@@ -158,8 +141,7 @@ public class EventController {
      * @return ture iff the user is successfully removed.
      */
     public boolean removeUser(String eventId, String userId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventInfoManager.removeUser(userId);
     }
 
@@ -171,8 +153,7 @@ public class EventController {
      * @return true iff the attendee User has successfully signed up.
      */
     public boolean signupEvent(String eventId, String userId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.addUser(userId);
     }
 
@@ -184,8 +165,7 @@ public class EventController {
      * @return true iff the attendee User has successfully cancelled the spot.
      */
     public boolean cancelEvent(String eventId, String userId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.removeUser(userId);
     }
 
@@ -196,7 +176,7 @@ public class EventController {
     public String getEventsInfo(){
         String s = "Events: \n";
         int num = 1;
-        for (String i: this.eventsManager.getSchedule().keySet()){
+        for (String i: this.eventsManager.getEventIds()){
             String eToString = "Event #" + num + " "+getSingleEventInfo(i) + "\n";
             num += 1;
             s += eToString;
@@ -206,7 +186,7 @@ public class EventController {
 
     public ArrayList<String> getEventsInfoList() {
         ArrayList<String> listOfEvents = new ArrayList<>();
-        for (String i: this.eventsManager.getSchedule().keySet()) {
+        for (String i: this.eventsManager.getEventIds()) {
             listOfEvents.add(getSingleEventInfo(i));
         }
         return listOfEvents;
@@ -218,9 +198,59 @@ public class EventController {
      * @return a string representation of the event.
      */
     public String getSingleEventInfo(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
-        return eventinfomanager.toString();
+        return this.getEventView(eventId).toString();
+    }
+
+    /**
+     * Get what screens show of an event, with its room number and speaker names already looked up.
+     * It is kept until the event, its room or its speakers change, so list screens need not look them up again.
+     * @param eventId of an Event.
+     * @return the EventView of the event, null if there is no such event.
+     */
+    public EventView getEventView(String eventId){
+        return this.eventsManager.getEventView(eventId, roomManager, usersManager);
+    }
+
+    /**
+     * Get what screens show of every scheduled event, in the order of the schedule.
+     * @return the EventViews of the events.
+     */
+    public List<EventView> getEventViews(){
+        return this.getEventViews(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get what screens show of a page of the scheduled events, in the order of the schedule.
+     * @param from position in the schedule of the first event of the page.
+     * @param count the most events on the page.
+     * @return the EventViews of the events on the page, empty past the end of the schedule.
+     */
+    public List<EventView> getEventViews(int from, int count){
+        List<EventView> views = new ArrayList<>();
+        for (String eventId : this.eventsManager.getEventIds(from, count)) {
+            EventView view = this.getEventView(eventId);
+            if (view != null) {
+                views.add(view);
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Get the ids of the scheduled events, in the order of the schedule. The list is a copy, so
+     * positions in it can be used to page through the schedule or to find the event a user picked from a list.
+     * @return a read-only list of the event ids.
+     */
+    public List<String> getEventIds(){
+        return this.eventsManager.getEventIds();
+    }
+
+    /**
+     * Get the number of scheduled events.
+     * @return the number of events.
+     */
+    public int countEvents(){
+        return this.eventsManager.countEvents();
     }
 
     /**
@@ -229,8 +259,7 @@ public class EventController {
      * @return string representation of the event about its info
      */
     public String getSingleEventBasicInfo(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.infoToString();
     }
 
@@ -242,8 +271,7 @@ public class EventController {
     public String getEventsBasicInfo(){
         String eventsInfo = "";
         int num = 1;
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        for (String id : schedule.keySet()){
+        for (String id : this.eventsManager.getEventIds()){
             eventsInfo = eventsInfo + "Event #" + num + "\n";
             eventsInfo = eventsInfo + getSingleEventBasicInfo(id) + "\n\n";
         }
@@ -256,8 +284,7 @@ public class EventController {
      * @return an Event.
      */
     public Event getSingleEvent(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager);
         return eventinfomanager.getEvent();
     }
 
@@ -268,8 +295,7 @@ public class EventController {
      * @return ture iff the speaker is successfully added to the event.
      */
     public boolean addSpeaker(String eventId, String speakerId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager);
         return eventinfomanager.addSpeaker(speakerId);
     }
 
@@ -280,8 +306,7 @@ public class EventController {
      * @return true iff the speaker is successfully removed from the event.
      */
     public boolean removeSpeaker(String eventId, String speakerId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager);
         return eventinfomanager.removeSpeaker(speakerId);
     }
 
@@ -295,8 +320,7 @@ public class EventController {
      */
     public boolean updateEventInfo(String eventId, LocalDateTime newTime,
                                    String newRoomId, int duration, int newCapacity){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager);
         return eventinfomanager.updateEventInfo(newTime, newRoomId, duration, newCapacity);
     }
 
@@ -306,9 +330,7 @@ public class EventController {
      * @return the event id.
      */
     public String getEventId(int index){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        ArrayList<String> eventIds = new ArrayList<>(schedule.keySet());
-        return eventIds.get(index);
+        return this.eventsManager.getEventIds(index, 1).get(0);
     }
 
     /**
@@ -317,8 +339,7 @@ public class EventController {
      * @return a list of Attendees in this event.
      */
     public List<String> getUsers(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.getUsers();
     }
 
@@ -329,93 +350,26 @@ public class EventController {
      * @return verification of the suggested rooms are added into event
      */
     public ArrayList<Integer> getSuggestedRooms(ArrayList<String> category){
-        for (int i = 0; i < category.size(); i++){
-            category.set(i,category.get(i).toLowerCase());
-        }
-        ArrayList<Integer> suggestedRooms = new ArrayList<>();
-        if (category.contains("none")|| category.size() == 0) {
-            for (Room room : roomManager.getAllRoomsObject()){
-                suggestedRooms.add(room.getRoomNum());
-            }
-            return suggestedRooms;
-        }
-        if(category.contains("tech")) {
-            for (Room room : roomManager.getAllRoomsObject()) {
-                if (room.getHasTech()) {
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        if(category.contains("table")){
-            for (Room room : roomManager.getAllRoomsObject()){
-                if(room.getIsTable() ){
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        if(category.contains("stage")) {
-            for (Room room : roomManager.getAllRoomsObject()) {
-                if (room.getHasStage()) {
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        if (category.contains("tech") && category.contains("table")) {
-            for (Room room : roomManager.getAllRoomsObject()) {
-                if (room.getHasTech() && room.getIsTable()) {
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        if (category.contains("table") && category.contains("stage")) {
-            for (Room room : roomManager.getAllRoomsObject()) {
-                if (room.getIsTable() && room.getHasStage()) {
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        if(category.contains("tech") && category.contains("stage")) {
-            for (Room room : roomManager.getAllRoomsObject()) {
-                if (room.getHasTech() && room.getHasStage()) {
-                    suggestedRooms.add(room.getRoomNum());
-                }
-            }
-            return suggestedRooms;
-        }
-        for (Room room : roomManager.getAllRoomsObject()) {
-            if (room.getHasTech() && room.getHasStage() && room.getIsTable()) {
-                suggestedRooms.add(room.getRoomNum());
-            }
-        }
-        return suggestedRooms;
+        return roomManager.getRoomsWithConstraints(category);
     }
 
     public ArrayList<String> getEventSpeakers(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.getEventSpeakers(eventId);
     }
 
     public String getEventSpeakersToString(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.speakersOfEvent();
     }
 
     public ArrayList<String> getEventSpeakersToList(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.listOfSpeakersOfEvent();
     }
 
     public String getEventType(String eventId){
-        Map<String, Event> schedule = this.eventsManager.getSchedule();
-        EventInfoManager eventinfomanager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventinfomanager = new EventInfoManager(eventId, this.eventsManager, roomManager, usersManager);
         return eventinfomanager.getType();
     }
 
@@ -36,6 +36,7 @@ public class InboxController {
      */
     public Map<String, String> getMessagesOfUser(String userId) {
         List<String> userMessages = this.inboxManager.getMessagesOfUser(userId);
+        this.messageManager.prefetchMessages(userMessages);
         Map<String, String> messageDict = new LinkedHashMap<>();
         for (String messageId : userMessages) {
             messageDict.put(messageId, getMessageString(messageId));
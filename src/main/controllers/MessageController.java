@@ -6,6 +6,7 @@ import main.usecases.MessageManager;
 import main.usecases.UsersManager;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -22,6 +23,7 @@ public class MessageController {
     EventController eventController;
     UsersManager usersManager;
     InboxManager inboxManager;
+    BroadcastQueue broadcasts;
 
 
     /**
@@ -34,6 +36,7 @@ public class MessageController {
         this.eventController = programController.getEventController();
         this.usersManager = programController.getUsersManager();
         this.inboxManager = programController.getInboxManager();
+        this.broadcasts = programController.broadcasts;
     }
 
     /**
@@ -49,16 +52,19 @@ public class MessageController {
     }
 
     /**
-     * Send the same message to all users inside the list
+     * Send the same message to all users inside the list. The message is created once and every inbox refers to
+     * it, instead of each receiver getting a copy.
      *
      * @param sender    the sender of the message
      * @param receivers a list of receivers
      * @param context   the context of the message
      */
     public void broadCast(String sender, List<String> receivers, String context) {
-        for (String receiver : receivers) {
-            this.sendMessage(sender, receiver, context);
+        if (receivers.isEmpty()) {
+            return;
         }
+        String newMessage = messageManager.createMessage(context, sender);
+        inboxManager.putMessageInToInboxes(newMessage, receivers);
     }
 
     /**
@@ -68,13 +74,13 @@ public class MessageController {
      */
     public List<String> receiversForAttendeeAndOrganizer(String sender) {
         List<String> receivers = new ArrayList<>();
-        // Search all users
-        for (String receiver : usersManager.getAllUsers()) {
-            // check if he is an organizer and if he is the sender
-            if (!receiver.equals(sender) &&!usersManager.fetchType(receiver).equals("Organizer")) {
-                receivers.add(receiver);
+        // Search the users of every type but organizer
+        for (String type : usersManager.getUserTypes()) {
+            if (!type.equals("Organizer")) {
+                receivers.addAll(usersManager.getUsersOfType(type));
             }
         }
+        receivers.remove(sender);
         return receivers;
 
     }
@@ -113,7 +119,9 @@ public class MessageController {
      */
     public ArrayList<String> replyOptionsForSpeaker(String speaker) {
         ArrayList<String> ret = new ArrayList<>();
-        for (String message : inboxManager.getMessagesOfUser(speaker)) {
+        List<String> messages = inboxManager.getMessagesOfUser(speaker);
+        messageManager.prefetchMessages(messages);
+        for (String message : messages) {
             if (!ret.contains(messageManager.retrieveMessageSender(message))) {
                 ret.add(messageManager.retrieveMessageSender(message));
             }
@@ -136,73 +144,135 @@ public class MessageController {
 
 
     /**
-     * Broadcast to all other users. This method should only be used by organizer
+     * Broadcast to all other users in the background. This method should only be used by organizer
      *
      * @param sender  the sender
      * @param context the context of the message
      */
     public void broadCastToAll(String sender, String context) {
-        this.broadCast(sender, this.receiversForAttendeeAndOrganizer(sender), context);
+        this.broadCastToAll(sender, context, new BroadcastListener() {
+        });
+    }
+
+    /**
+     * Broadcast to all other users in the background. This method should only be used by organizer
+     *
+     * @param sender   the sender
+     * @param context  the context of the message
+     * @param listener told how the delivery is getting on
+     */
+    public void broadCastToAll(String sender, String context, BroadcastListener listener) {
+        broadcasts.deliver(sender, () -> this.receiversForAttendeeAndOrganizer(sender), context, listener);
     }
 
     /**
-     * Broadcast to all attendees. This method should only be used by organizer.
+     * Broadcast to all attendees in the background. This method should only be used by organizer.
      *
      * @param sender  the sender
      * @param context the context of the message
      */
     public void broadCastToAttendees(String sender, String context) {
-        List<String> attendees = new ArrayList<>();
-        List<String> receivers = this.receiversForAttendeeAndOrganizer(sender);
-        for (String user : receivers) {
-            if (this.usersManager.fetchType(user).equals("Attendee")) {
-                attendees.add(user);
-            }
-        }
-        this.broadCast(sender, attendees, context);
+        this.broadCastToAttendees(sender, context, new BroadcastListener() {
+        });
     }
 
+    /**
+     * Broadcast to all attendees in the background. This method should only be used by organizer.
+     *
+     * @param sender   the sender
+     * @param context  the context of the message
+     * @param listener told how the delivery is getting on
+     */
+    public void broadCastToAttendees(String sender, String context, BroadcastListener listener) {
+        broadcasts.deliver(sender, () -> this.receiversOfType(sender, "Attendee"), context, listener);
+    }
 
     /**
-     * Broadcast to all speakers. This method should only be used by organizer.
+     * Broadcast to all speakers in the background. This method should only be used by organizer.
      *
      * @param sender  the sender
      * @param context the context of the message
      */
     public void broadCastToSpeakers(String sender, String context) {
-        List<String> speakers = new ArrayList<>();
-        List<String> receivers = this.receiversForAttendeeAndOrganizer(sender);
-        for (String user : receivers) {
-            if (this.usersManager.fetchType(user).equals("Speaker")) {
-                speakers.add(user);
-            }
-        }
-        this.broadCast(sender, speakers, context);
+        this.broadCastToSpeakers(sender, context, new BroadcastListener() {
+        });
     }
 
     /**
-     * speaker could broadcast to all attendees of an event
+     * Broadcast to all speakers in the background. This method should only be used by organizer.
+     *
+     * @param sender   the sender
+     * @param context  the context of the message
+     * @param listener told how the delivery is getting on
+     */
+    public void broadCastToSpeakers(String sender, String context, BroadcastListener listener) {
+        broadcasts.deliver(sender, () -> this.receiversOfType(sender, "Speaker"), context, listener);
+    }
+
+    private List<String> receiversOfType(String sender, String type) {
+        List<String> receivers = new ArrayList<>(this.usersManager.getUsersOfType(type));
+        receivers.remove(sender);
+        return receivers;
+    }
+
+    /**
+     * speaker could broadcast to all attendees of an event, in the background
      *
      * @param event   the uuid of the event
      * @param speaker the speaker himself
      * @param context the context of the string
      */
     public void broadCastForSpeaker(String event, String speaker, String context) {
-        List<String> receivers = eventController.getSingleEvent(event).getAttendeesID();
-        this.broadCast(speaker, receivers, context);
+        this.broadCastForSpeakerMoreEvents(Collections.singletonList(event), speaker, context);
+    }
+
+    /**
+     * speaker could broadcast to all attendees of an event, in the background
+     *
+     * @param event    the uuid of the event
+     * @param speaker  the speaker himself
+     * @param context  the context of the string
+     * @param listener told how the delivery is getting on
+     */
+    public void broadCastForSpeaker(String event, String speaker, String context, BroadcastListener listener) {
+        this.broadCastForSpeakerMoreEvents(Collections.singletonList(event), speaker, context, listener);
     }
 
     /**
-     * speaker could broadcast the message to all attendees of several events
+     * speaker could broadcast the message to all attendees of several events, in the background. An attendee of
+     * more than one of the events gets the message once.
      *
      * @param events  a list of events
      * @param speaker the speaker himself
      * @param context the context of string
      */
     public void broadCastForSpeakerMoreEvents(List<String> events, String speaker, String context) {
-        for (String event : events) {
-            this.broadCastForSpeaker(event, speaker, context);
-        }
+        this.broadCastForSpeakerMoreEvents(events, speaker, context, new BroadcastListener() {
+        });
+    }
+
+    /**
+     * speaker could broadcast the message to all attendees of several events, in the background. An attendee of
+     * more than one of the events gets the message once.
+     *
+     * @param events   a list of events
+     * @param speaker  the speaker himself
+     * @param context  the context of string
+     * @param listener told how the delivery is getting on
+     */
+    public void broadCastForSpeakerMoreEvents(List<String> events, String speaker, String context,
+                                              BroadcastListener listener) {
+        broadcasts.deliver(speaker, () -> {
+            List<String> receivers = new ArrayList<>();
+            for (String eventId : events) {
+                Event event = eventController.getSingleEvent(eventId);
+                // the event may have been removed since the broadcast was asked for
+                if (event != null) {
+                    receivers.addAll(event.getAttendeesID());
+                }
+            }
+            return receivers;
+        }, context, listener);
     }
 
 
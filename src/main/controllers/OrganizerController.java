@@ -1,6 +1,5 @@
 package main.controllers;
 
-import main.entities.Event;
 import main.entities.Room;
 import main.entities.User;
 import main.usecases.*;
@@ -8,7 +7,6 @@ import main.usecases.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Apart from the responsibilities listed in the UserController, the OrganizerController handles advance actions
@@ -110,8 +108,7 @@ public class OrganizerController extends AttendeeController {
      * updated.
      */
     public boolean updateTime(String eventId, LocalDateTime time) {
-        Map<String, Event> schedule = eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, eventsManager, roomManager, usersManager);
         String roomId = eventInfoManager.getRoomId(eventId);
         int duration = eventInfoManager.getDuration(eventId);
         int capacity = eventInfoManager.getCapacity();
@@ -128,8 +125,7 @@ public class OrganizerController extends AttendeeController {
      * updated.
      */
     public boolean updateCapacity(String eventId, int newCapacity) {
-        Map<String, Event> schedule = eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, eventsManager, roomManager, usersManager);
         String roomId = eventInfoManager.getRoomId(eventId);
         LocalDateTime time = eventInfoManager.getTime(eventId);
         int duration = eventInfoManager.getDuration(eventId);
@@ -162,7 +158,12 @@ public class OrganizerController extends AttendeeController {
             if (currentSpeaker.size() == 1){
                 String previousSpeaker = currentSpeaker.get(0);
                 eventController.removeSpeaker(eventId, previousSpeaker);
-                return eventController.addSpeaker(eventId, speakerId);
+                if (eventController.addSpeaker(eventId, speakerId)) {
+                    return true;
+                }
+                // the new speaker is busy at that time, keep the previous one
+                eventController.addSpeaker(eventId, previousSpeaker);
+                return false;
             }
         }
         return eventController.addSpeaker(eventId, speakerId);
@@ -203,8 +204,7 @@ public class OrganizerController extends AttendeeController {
      * old room. Return false if the room has been occupied at that time
      */
     public boolean updateRoom(String eventId, int roomNum) {
-        Map<String, Event> schedule = eventsManager.getSchedule();
-        EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule, roomManager, usersManager);
+        EventInfoManager eventInfoManager = new EventInfoManager(eventId, eventsManager, roomManager, usersManager);
         LocalDateTime time = eventInfoManager.getTime(eventId);
         String roomId = roomManager.getRoomIDGivenRoomNum(roomNum);
         int duration = eventInfoManager.getDuration(eventId);
@@ -229,14 +229,7 @@ public class OrganizerController extends AttendeeController {
      * @return a list of speakers which inside the program
      */
     public List<String> getAllSpeakers() {
-        List<String> speakers = new ArrayList<>();
-        for (String user : usersManager.getAllUsers()) {
-            // check if he is a speaker
-            if (this.usersManager.fetchType(user).equals("Speaker")) {
-                speakers.add(user);
-            }
-        }
-        return speakers;
+        return new ArrayList<>(usersManager.getUsersOfType("Speaker"));
     }
 
     public List<String> getAllSpeakerUsernames(){
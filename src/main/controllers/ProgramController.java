@@ -1,13 +1,19 @@
 package main.controllers;
 
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
+import main.gateways.MessageRepository;
 import main.gateways.sqlgateway.SQLiteGateway;
 import main.screencontrollers.AnonymousScreenController;
 import main.screencontrollers.ScreenController;
 import main.usecases.*;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * The main constructor of the application that coordinates functionality and stores Singleton objects
@@ -25,14 +31,32 @@ public class ProgramController {
     InboxManager inboxManager;
     RoomManager roomManager;
     MessageController messageController;
-    Gateway gateway = new SQLiteGateway();
+    Gateway gateway;
+    BackgroundSaver saver;
+    BroadcastQueue broadcasts;
+    boolean parallelLoad = true;
 
+    /**
+     * Creates the program on top of the SQLite database in its default location
+     */
     public ProgramController() {
+        this(new SQLiteGateway());
+    }
+
+    /**
+     * Creates the program on top of the given gateway
+     *
+     * @param gateway where the data of the program is loaded from and saved to
+     */
+    public ProgramController(Gateway gateway) {
+        this.gateway = gateway;
+        this.saver = new BackgroundSaver(gateway);
         this.usersManager = new UsersManager();
         this.eventsManager = new EventsManager();
         this.messageManager = new MessageManager();
         this.inboxManager = new InboxManager();
         this.roomManager = new RoomManager();
+        this.broadcasts = new BroadcastQueue(messageManager, inboxManager, this::saveForNext);
         this.authController = new AuthController(this, usersManager);
         this.currentScreenController = new AnonymousScreenController(this);
         this.eventController = new EventController(this);
@@ -49,24 +73,121 @@ public class ProgramController {
         this.loadData();
     }
 
+    /**
+     * Saves what changed since the last save in the background. The changes are copied right away, so the caller
+     * may go on changing the managers, and saves asked for before the previous one is written are coalesced.
+     */
     public void saveForNext() {
-        this.saveData();
+        this.saver.save(this::saveData);
+    }
+
+    /**
+     * Waits until every broadcast sent so far is delivered and every save asked for so far is written to the gateway
+     */
+    public void flush() {
+        this.broadcasts.flush();
+        this.saver.flush();
+    }
+
+    /**
+     * Delivers the broadcasts sent so far, saves what changed, waits for every save to be written and closes the
+     * gateway. Called once, when the program exits.
+     */
+    public void shutdown() {
+        this.broadcasts.shutdown();
+        this.saveForNext();
+        this.saver.shutdown();
+        this.gateway.close();
     }
 
+    /**
+     * @return true iff changes are being saved in the background
+     */
+    public boolean isSaving() {
+        return this.saver.isSaving();
+    }
+
+    /**
+     * @param listener told true when a background save starts and false once everything is saved.
+     *                 It may be called from the background thread.
+     */
+    public void addSavingListener(Consumer<Boolean> listener) {
+        this.saver.addSavingListener(listener);
+    }
+
+    /**
+     * Sets whether the tables are loaded at the same time, each through its own reader of the gateway,
+     * or one after another
+     *
+     * @param parallelLoad true to load in parallel
+     */
+    public void setParallelLoad(boolean parallelLoad) {
+        this.parallelLoad = parallelLoad;
+    }
+
+    /**
+     * Loads every table into its manager. The managers share nothing while loading, so in parallel mode the
+     * start up takes as long as the largest table rather than the sum of all of them.
+     */
     private void loadData() {
-        this.usersManager.loadUsersFromGateway(this.gateway);
-        this.roomManager.loadRoomsFromGateway(this.gateway);
-        this.eventsManager.loadEventsFromGateway(this.gateway);
-        this.messageManager.loadMessagesFromGateway(this.gateway);
-        this.inboxManager.loadFromGateway(this.gateway);
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        loads.add(this.load("users", this.usersManager::loadUsersFromGateway));
+        loads.add(this.load("rooms", this.roomManager::loadRoomsFromGateway));
+        loads.add(this.load("events", this.eventsManager::loadEventsFromGateway));
+        if (this.gateway instanceof MessageRepository) {
+            // message history grows without bound, so it is looked up on demand instead
+            MessageRepository repository = (MessageRepository) this.gateway;
+            this.messageManager.useRepository(repository);
+            this.inboxManager.useRepository(repository);
+        } else {
+            loads.add(this.load("messages", this.messageManager::loadMessagesFromGateway));
+            loads.add(this.load("inboxes", this.inboxManager::loadFromGateway));
+        }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * Loads one table, on a reader of its own in parallel mode, and reports how long it took
+     *
+     * @param table  name of the table, for the report
+     * @param loader loads the table from a gateway into its manager
+     * @return the running load, already done if not in parallel mode
+     */
+    private CompletableFuture<Void> load(String table, Consumer<Gateway> loader) {
+        Runnable timedLoad = () -> {
+            long start = System.nanoTime();
+            if (this.parallelLoad) {
+                Gateway reader = this.gateway.openReader();
+                try {
+                    loader.accept(reader);
+                } finally {
+                    if (reader != this.gateway) {
+                        reader.close();
+                    }
+                }
+            } else {
+                loader.accept(this.gateway);
+            }
+            System.out.println("Loaded " + table + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        };
+        if (this.parallelLoad) {
+            return CompletableFuture.runAsync(timedLoad);
+        }
+        timedLoad.run();
+        return CompletableFuture.completedFuture(null);
     }
 
-    private void saveData() {
-        this.usersManager.saveUsersToGateway(this.gateway);
-        this.roomManager.saveRoomsToGateway(this.gateway);
-        this.eventsManager.saveEventsToGateway(this.gateway);
-        this.messageManager.saveMessagesToGateway(this.gateway);
-        this.inboxManager.saveToGateway(this.gateway);
+    /**
+     * Saves only what was added, changed or removed since the last load or save
+     *
+     * @param target the changes are saved to
+     */
+    private void saveData(GatewayWriter target) {
+        this.usersManager.saveUserChangesToGateway(target);
+        this.roomManager.saveRoomChangesToGateway(target);
+        this.eventsManager.saveEventChangesToGateway(target);
+        this.messageManager.saveMessageChangesToGateway(target);
+        this.inboxManager.saveChangesToGateway(target);
     }
 
     /**
@@ -79,7 +200,8 @@ public class ProgramController {
             this.currentScreenController.start();
         } else {
             // Save data on exit
-            saveData();
+            saveForNext();
+            flush();
         }
     }
 
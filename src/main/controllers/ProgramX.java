@@ -1,20 +1,61 @@
 package main.controllers;
 
+import main.gateways.GatewayFactory;
+import main.gateways.sqlgateway.SQLiteGateway;
 import main.gui.LandingUI;
 import main.guipresenters.LandingUIPresenter;
 
 import javax.swing.*;
+import java.awt.*;
 
 public class ProgramX {
 
+    private static final String SAVING_SUFFIX = " - Saving...";
+
     public ProgramX() {
+        this(SQLiteGateway.DEFAULT_PATH);
+    }
+
+    /**
+     * @param location of the data, as GatewayFactory takes it: the path of the SQLite database file to use, or
+     *                 "journal:" followed by a directory to keep snapshots and a journal in
+     */
+    public ProgramX(String location) {
         // model-view-presenter
         LandingUI landingUI = new LandingUI(); // view
-        ProgramController program = new ProgramController(); // model
+        ProgramController program = new ProgramController(new GatewayFactory().getGateway(location)); // model
+        program.addSavingListener(saving -> SwingUtilities.invokeLater(() -> showSaving(saving)));
+        // saves are written in the background, so the last ones are flushed when the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(program::shutdown, "flush-on-exit"));
         new LandingUIPresenter(landingUI, program); // presenter
     }
 
+    /**
+     * Shows in the title of every open window whether changes are being saved
+     *
+     * @param saving true iff changes are being saved
+     */
+    private static void showSaving(boolean saving) {
+        for (Frame frame : Frame.getFrames()) {
+            if (!frame.isDisplayable() || frame.getTitle() == null) {
+                continue;
+            }
+            String title = frame.getTitle();
+            if (title.endsWith(SAVING_SUFFIX)) {
+                title = title.substring(0, title.length() - SAVING_SUFFIX.length());
+            }
+            frame.setTitle(saving ? title + SAVING_SUFFIX : title);
+        }
+    }
+
+    /**
+     * Starts the app
+     *
+     * @param args optionally the path of the SQLite database file, src/store/app.db by default, or
+     *             "journal:" followed by a directory to keep snapshots and a journal in, such as journal:src/store
+     */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(ProgramX::new);
+        String location = args.length > 0 ? args[0] : SQLiteGateway.DEFAULT_PATH;
+        SwingUtilities.invokeLater(() -> new ProgramX(location));
     }
 }
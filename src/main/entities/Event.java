@@ -1,8 +1,7 @@
 package main.entities;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.UUID;
+import java.util.*;
 
 /**
  * A class that represents an event at the conference.
@@ -14,8 +13,11 @@ import java.util.UUID;
 
 public class Event {
 
-    private final ArrayList<String> attendeesID;
-    private final ArrayList<String> speakersID;
+    private static final String[] NO_SPEAKERS = new String[0];
+
+    private final LinkedHashSet<String> attendeesID; // insertion ordered, so the sign up order is kept
+    private final LinkedHashSet<String> speakersID;
+    private volatile String[] speakerArray = NO_SPEAKERS; // speakersID as an array, replaced whenever it changes
     private String id;
     private String title;
     private LocalDateTime time;
@@ -23,13 +25,17 @@ public class Event {
     private String type;
     private int duration;
     private int capacity;
+    private long startMinute; // minutes since 1970-01-01T00:00, kept in step with time
+    private long endMinute; // startMinute + duration
+    private MemberChanges memberChanges; // attendees and speakers added or removed since the last save
 
     /**
      * No-arg constructor for deserialization
      */
     public Event() {
-        this.attendeesID = new ArrayList<>();
-        this.speakersID = new ArrayList<>();
+        this.attendeesID = new LinkedHashSet<>();
+        this.speakersID = new LinkedHashSet<>();
+        this.memberChanges = new MemberChanges();
     }
 
     /**
@@ -49,10 +55,12 @@ public class Event {
         this.time = time;
         this.roomID = roomID;
         this.type = "NoSpeakerEvent";
-        this.attendeesID = new ArrayList<>();
-        this.speakersID = new ArrayList<>();
+        this.attendeesID = new LinkedHashSet<>();
+        this.speakersID = new LinkedHashSet<>();
+        this.memberChanges = new MemberChanges();
         this.duration = duration;
         this.capacity = capacity;
+        this.updateMinutes();
     }
 
     /**
@@ -72,11 +80,13 @@ public class Event {
         this.title = title;
         this.time = time;
         this.roomID = roomID;
-        this.speakersID = new ArrayList<>();
-        this.attendeesID = new ArrayList<>();
+        this.speakersID = new LinkedHashSet<>();
+        this.attendeesID = new LinkedHashSet<>();
+        this.memberChanges = new MemberChanges();
         this.type = type;
         this.duration = duration;
         this.capacity = capacity;
+        this.updateMinutes();
     }
 
     /**
@@ -99,12 +109,41 @@ public class Event {
 
 
     /**
-     * Returns a list of IDs of attendees who signed up for this event.
+     * Returns a list of IDs of attendees who signed up for this event, in the order they signed up.
+     * The list is a copy, use addAttendees and removeAttendees to change the attendees.
      *
      * @return attendeesID
      */
-    public ArrayList<String> getAttendeesID() {
-        return attendeesID;
+    public synchronized ArrayList<String> getAttendeesID() {
+        return new ArrayList<>(attendeesID);
+    }
+
+    /**
+     * Returns a read-only copy of the IDs of attendees who signed up for this event, in the order they signed up.
+     *
+     * @return attendeesID
+     */
+    public synchronized Set<String> getAttendeeSet() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(attendeesID));
+    }
+
+    /**
+     * Returns true iff the attendee signed up for this event.
+     *
+     * @param id of the attendee
+     * @return whether the attendee is in this event
+     */
+    public synchronized boolean hasAttendee(String id) {
+        return attendeesID.contains(id);
+    }
+
+    /**
+     * Returns the number of attendees who signed up for this event.
+     *
+     * @return number of attendees
+     */
+    public synchronized int getAttendeeCount() {
+        return attendeesID.size();
     }
 
     /**
@@ -112,8 +151,27 @@ public class Event {
      *
      * @param id to be added
      */
-    public void addAttendees(String id) {
+    public synchronized void addAttendees(String id) {
+        if (attendeesID.add(id)) {
+            memberChanges.addedAttendees.add(id);
+        }
+    }
+
+    /**
+     * A given id of an attendee is added to the list of id iff it is not in it yet and the event is not full.
+     * Both are checked and the id added in one step, so attendees signing up at the same time cannot overbook
+     * the event.
+     *
+     * @param id to be added
+     * @return whether the id was added
+     */
+    public synchronized boolean addAttendeeIfNotFull(String id) {
+        if (attendeesID.size() >= capacity || attendeesID.contains(id)) {
+            return false;
+        }
         attendeesID.add(id);
+        memberChanges.addedAttendees.add(id);
+        return true;
     }
 
     /**
@@ -121,8 +179,10 @@ public class Event {
      *
      * @param id to be removed
      */
-    public void removeAttendees(String id) {
-        attendeesID.remove(id);
+    public synchronized void removeAttendees(String id) {
+        if (attendeesID.remove(id)) {
+            MemberChanges.removed(memberChanges.addedAttendees, memberChanges.removedAttendees, id);
+        }
     }
 
     /**
@@ -159,6 +219,42 @@ public class Event {
      */
     public void setTime(LocalDateTime time) {
         this.time = time;
+        this.updateMinutes();
+    }
+
+    /**
+     * Returns the start time of this event as minutes since 1970-01-01T00:00.
+     *
+     * @return startMinute
+     */
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    /**
+     * Returns the end time of this event as minutes since 1970-01-01T00:00.
+     *
+     * @return endMinute
+     */
+    public long getEndMinute() {
+        return endMinute;
+    }
+
+    /**
+     * Converts a time to minutes since 1970-01-01T00:00, the representation used by getStartMinute.
+     *
+     * @param time to be converted
+     * @return minutes since 1970-01-01T00:00
+     */
+    public static long toEpochMinute(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * 1440 + time.getHour() * 60 + time.getMinute();
+    }
+
+    private void updateMinutes() {
+        if (time != null) {
+            this.startMinute = toEpochMinute(time);
+            this.endMinute = startMinute + duration;
+        }
     }
 
     /**
@@ -198,12 +294,52 @@ public class Event {
     }
 
     /**
-     * Get a list of speakers in the event
+     * Get a list of speakers in the event, in the order they were added.
+     * The list is a copy, use addSpeaker and removeSpeaker to change the speakers.
      *
      * @return an array list of speakerID
      */
-    public ArrayList<String> getSpeakers() {
-        return this.speakersID;
+    public synchronized ArrayList<String> getSpeakers() {
+        return new ArrayList<>(this.speakersID);
+    }
+
+    /**
+     * Get a read-only copy of the speakers in the event, in the order they were added.
+     *
+     * @return a set of speakerID
+     */
+    public synchronized Set<String> getSpeakerSet() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(this.speakersID));
+    }
+
+    /**
+     * Get the speakers in the event, in the order they were added, without copying them or taking the lock of the
+     * event. The array is replaced rather than changed when a speaker is added or removed, so it stays the same
+     * while it is read; it must not be modified.
+     *
+     * @return an array of speakerID
+     */
+    public String[] getSpeakerArray() {
+        return this.speakerArray;
+    }
+
+    /**
+     * Returns true iff the speaker speaks at this event.
+     *
+     * @param speakerID of the speaker
+     * @return whether the speaker is in this event
+     */
+    public synchronized boolean hasSpeaker(String speakerID) {
+        return this.speakersID.contains(speakerID);
+    }
+
+    /**
+     * Get the number of speakers in the event
+     *
+     * @return number of speakers
+     */
+    public synchronized int getSpeakerCount() {
+        return this.speakersID.size();
     }
 
     /**
@@ -211,8 +347,11 @@ public class Event {
      *
      * @param speakerID of the speaker
      */
-    public void addSpeaker(String speakerID) {
-        this.speakersID.add(speakerID);
+    public synchronized void addSpeaker(String speakerID) {
+        if (this.speakersID.add(speakerID)) {
+            this.speakerArray = this.speakersID.toArray(NO_SPEAKERS);
+            memberChanges.addedSpeakers.add(speakerID);
+        }
     }
 
     /**
@@ -220,8 +359,11 @@ public class Event {
      *
      * @param speakerID of the speaker
      */
-    public void removeSpeaker(String speakerID) {
-        this.speakersID.remove(speakerID);
+    public synchronized void removeSpeaker(String speakerID) {
+        if (this.speakersID.remove(speakerID)) {
+            this.speakerArray = this.speakersID.toArray(NO_SPEAKERS);
+            MemberChanges.removed(memberChanges.addedSpeakers, memberChanges.removedSpeakers, speakerID);
+        }
     }
 
     /**
@@ -240,6 +382,7 @@ public class Event {
      */
     public void setDuration(int duration) {
         this.duration = duration;
+        this.updateMinutes();
     }
 
     /**
@@ -247,7 +390,7 @@ public class Event {
      *
      * @return the capacity of the event
      */
-    public int getCapacity() {
+    public synchronized int getCapacity() {
         return capacity;
     }
 
@@ -256,9 +399,95 @@ public class Event {
      *
      * @param capacity of the event
      */
-    public void setCapacity(int capacity) {
+    public synchronized void setCapacity(int capacity) {
         this.capacity = capacity;
     }
 
+    /**
+     * Take the attendees and speakers added or removed since the last save, so a Gateway can write only those.
+     * The event starts recording anew, so members changed meanwhile are kept for the next save.
+     *
+     * @return the member changes taken
+     */
+    public synchronized MemberChanges takeMemberChanges() {
+        MemberChanges taken = this.memberChanges;
+        this.memberChanges = new MemberChanges();
+        return taken;
+    }
+
+    /**
+     * Put back member changes taken by takeMemberChanges whose save failed. Changes recorded since are newer,
+     * so they are applied on top of the ones put back.
+     *
+     * @param taken the member changes returned by takeMemberChanges
+     */
+    public synchronized void restoreMemberChanges(MemberChanges taken) {
+        taken.addLater(this.memberChanges);
+        this.memberChanges = taken;
+    }
+
+    /**
+     * Forget the member changes, called once the event was loaded from or saved in full to a Gateway.
+     */
+    public synchronized void clearMemberChanges() {
+        this.memberChanges = new MemberChanges();
+    }
+
+    /**
+     * The ids of the attendees and speakers added to or removed from an event since it was last saved.
+     * A member removed and added again is in both, so that it is removed and then added back in sign up order.
+     */
+    public static class MemberChanges {
+
+        private final Set<String> addedAttendees = new LinkedHashSet<>();
+        private final Set<String> removedAttendees = new LinkedHashSet<>();
+        private final Set<String> addedSpeakers = new LinkedHashSet<>();
+        private final Set<String> removedSpeakers = new LinkedHashSet<>();
+
+        private static void removed(Set<String> added, Set<String> removed, String id) {
+            added.remove(id);
+            removed.add(id);
+        }
+
+        private void addLater(MemberChanges later) {
+            for (String id : later.removedAttendees) {
+                removed(addedAttendees, removedAttendees, id);
+            }
+            addedAttendees.addAll(later.addedAttendees);
+            for (String id : later.removedSpeakers) {
+                removed(addedSpeakers, removedSpeakers, id);
+            }
+            addedSpeakers.addAll(later.addedSpeakers);
+        }
+
+        /**
+         * @return ids of the attendees added since the last save, in the order they signed up
+         */
+        public Set<String> getAddedAttendees() {
+            return Collections.unmodifiableSet(addedAttendees);
+        }
+
+        /**
+         * @return ids of the attendees removed since the last save
+         */
+        public Set<String> getRemovedAttendees() {
+            return Collections.unmodifiableSet(removedAttendees);
+        }
+
+        /**
+         * @return ids of the speakers added since the last save, in the order they were added
+         */
+        public Set<String> getAddedSpeakers() {
+            return Collections.unmodifiableSet(addedSpeakers);
+        }
+
+        /**
+         * @return ids of the speakers removed since the last save
+         */
+        public Set<String> getRemovedSpeakers() {
+            return Collections.unmodifiableSet(removedSpeakers);
+        }
+    }
+
 
 }
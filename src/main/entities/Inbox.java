@@ -1,6 +1,6 @@
 package main.entities;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,7 +19,7 @@ public class Inbox {
      * No-arg constructor for deserialization
      */
     public Inbox() {
-        this.messages = new LinkedList<>();
+        this.messages = new ArrayList<>();
     }
 
     /**
@@ -28,7 +28,7 @@ public class Inbox {
     public Inbox(String user) {
         this.id = UUID.randomUUID().toString();
         this.user = user;
-        this.messages = new LinkedList<>();
+        this.messages = new ArrayList<>();
 
     }
 
@@ -10,11 +10,15 @@ import main.gateways.beans.*;
 import main.gateways.converters.*;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Gateway that uses CSVs to store data
+ * Rows are read, converted and written one at a time, so a file never has to fit in memory twice.
+ * Files are written to a temporary file first and then renamed over the old one, so a failed save leaves the
+ * previous file intact.
  *
  * @author David Zhao
  */
@@ -31,178 +35,200 @@ public class CSVGateway implements Gateway {
 
 
     public List<User> loadUsers() {
-        try {
-            // From documentation available at http://opencsv.sourceforge.net/
-            UserConverter converter = new UserConverter();
-            List<UserBean> userBeans = new CsvToBeanBuilder(new BufferedReader(new FileReader(this.userCSVPath))).withType(UserBean.class).build().parse();
-            List<User> users = converter.convertFromBeans(userBeans);
-
-            return users;
-
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found.");
-            return new ArrayList<>();
-        }
-
-
+        return this.load(this.userCSVPath, UserBean.class, new UserConverter());
     }
 
     public void saveUsers(List<User> users) {
-        try {
-            UserConverter converter = new UserConverter();
-            List<UserBean> userBeans = converter.convertToBeans(users);
-            // From documentation available at http://opencsv.sourceforge.net/
-            FileWriter csvFileWriter = new FileWriter(this.userCSVPath);
-            StatefulBeanToCsv beanToCsv = new StatefulBeanToCsvBuilder(csvFileWriter).build();
-            beanToCsv.write(userBeans);
-            csvFileWriter.close();
-
-        } catch (IOException e) {
-            System.out.println("IOException. Error writing file.");
-        } catch (CsvDataTypeMismatchException e) {
-            System.out.println("Error writing file. Check your data format.");
-        } catch (CsvRequiredFieldEmptyException e) {
-            System.out.println("Error writing file. Missing required field.");
-        }
+        this.save(this.userCSVPath, users, new UserConverter());
     }
 
     public List<Event> loadEvents() {
-        try {
-            // From documentation available at http://opencsv.sourceforge.net/
-            EventConverter converter = new EventConverter();
-            List<EventBean> eventBeans = new CsvToBeanBuilder(new BufferedReader(new FileReader(this.eventCSVPath))).withType(EventBean.class).build().parse();
-            List<Event> events = converter.convertFromBeans(eventBeans);
-
-            return events;
-
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found.");
-            return null;
-        }
-
+        return this.load(this.eventCSVPath, EventBean.class, new EventConverter());
     }
 
     public void saveEvents(List<Event> events) {
-        try {
-            EventConverter converter = new EventConverter();
-            List<EventBean> eventBeans = converter.convertToBeans(events);
-            // From documentation available at http://opencsv.sourceforge.net/
-            FileWriter csvFileWriter = new FileWriter(this.eventCSVPath);
-            StatefulBeanToCsv beanToCsv = new StatefulBeanToCsvBuilder(csvFileWriter).build();
-            beanToCsv.write(eventBeans);
-            csvFileWriter.close();
-
-        } catch (IOException e) {
-            System.out.println("IOException. Error writing file.");
-        } catch (CsvDataTypeMismatchException e) {
-            System.out.println("Error writing file. Check your data format.");
-        } catch (CsvRequiredFieldEmptyException e) {
-            System.out.println("Error writing file. Missing required field.");
-        }
+        this.save(this.eventCSVPath, events, new EventConverter());
     }
 
     public List<Room> loadRooms() {
-        try {
-            // From documentation available at http://opencsv.sourceforge.net/
-            RoomConverter converter = new RoomConverter();
-            List<RoomBean> roomBeans = new CsvToBeanBuilder(new BufferedReader(new FileReader(this.roomCSVPath))).withType(RoomBean.class).build().parse();
-            List<Room> rooms = converter.convertFromBeans(roomBeans);
-            return rooms;
-
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found.");
-            return null;
-        }
-
+        return this.load(this.roomCSVPath, RoomBean.class, new RoomConverter());
     }
 
     public void saveRooms(List<Room> rooms) {
-        try {
-            RoomConverter converter = new RoomConverter();
-            List<RoomBean> roomBeans = converter.convertToBeans(rooms);
-            // From documentation available at http://opencsv.sourceforge.net/
-            FileWriter csvFileWriter = new FileWriter(this.roomCSVPath);
-
-            StatefulBeanToCsv beanToCsv = new StatefulBeanToCsvBuilder(csvFileWriter).build();
-            beanToCsv.write(roomBeans);
-            csvFileWriter.close();
-
-        } catch (IOException e) {
-            System.out.println("IOException. Error writing file.");
-        } catch (CsvDataTypeMismatchException e) {
-            System.out.println("Error writing file. Check your data format.");
-        } catch (CsvRequiredFieldEmptyException e) {
-            System.out.println("Error writing file. Missing required field.");
-        }
+        this.save(this.roomCSVPath, rooms, new RoomConverter());
     }
 
     public List<Message> loadMessages() {
-        try {
-            MessageConverter messageConverter = new MessageConverter();
-            List<MessageBean> messageBeans = new CsvToBeanBuilder(new BufferedReader(new FileReader(this.messageCSVPath))).withType(MessageBean.class).build().parse();
+        return this.load(this.messageCSVPath, MessageBean.class, new MessageConverter());
+    }
 
-            List<Message> messages = messageConverter.convertFromBeans(messageBeans);
-            return messages;
+    public void saveMessages(List<Message> messages) {
+        this.save(this.messageCSVPath, messages, new MessageConverter());
+    }
 
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found.");
-            return new ArrayList<>();
-        }
+    public List<Inbox> loadInboxes() {
+        return this.load(this.inboxCSVPath, InboxBean.class, new InboxConverter());
     }
 
-    public void saveMessages(List<Message> messages) {
-        try {
-            MessageConverter messageConverter = new MessageConverter();
-            List<MessageBean> messageBeans = messageConverter.convertToBeans(messages);
-            FileWriter csvFileWriter = new FileWriter(this.messageCSVPath);
+    public void saveInboxes(List<Inbox> inboxes) {
+        this.save(this.inboxCSVPath, inboxes, new InboxConverter());
+    }
 
-            StatefulBeanToCsv beanToCsv = new StatefulBeanToCsvBuilder(csvFileWriter).build();
-            beanToCsv.write(messageBeans);
-            csvFileWriter.close();
+    public void saveUserChanges(List<User> users, List<String> removedIds) {
+        this.saveChanges(this.userCSVPath, UserBean.class, new UserConverter(), users, removedIds,
+                User::getId, UserBean::getId);
+    }
 
-        } catch (IOException e) {
-            System.out.println("IOException. Error writing file.");
-        } catch (CsvDataTypeMismatchException e) {
-            System.out.println("Error writing file. Check your data format.");
-        } catch (CsvRequiredFieldEmptyException e) {
-            System.out.println("Error writing file. Missing required field.");
-        }
+    public void saveEventChanges(List<Event> events, List<String> removedIds) {
+        this.saveChanges(this.eventCSVPath, EventBean.class, new EventConverter(), events, removedIds,
+                Event::getId, EventBean::getId);
     }
 
-    public List<Inbox> loadInboxes() {
-        try {
-            InboxConverter converter = new InboxConverter();
-            List<InboxBean> inboxBeans = new CsvToBeanBuilder(new BufferedReader(new FileReader(this.inboxCSVPath))).withType(InboxBean.class).build().parse();
-            List<Inbox> inboxes = converter.convertFromBeans(inboxBeans);
-            return inboxes;
+    public void saveRoomChanges(List<Room> rooms, List<String> removedIds) {
+        this.saveChanges(this.roomCSVPath, RoomBean.class, new RoomConverter(), rooms, removedIds,
+                Room::getId, RoomBean::getId);
+    }
 
+    public void saveMessageChanges(List<Message> messages, List<String> removedIds) {
+        this.saveChanges(this.messageCSVPath, MessageBean.class, new MessageConverter(), messages, removedIds,
+                Message::getId, MessageBean::getId);
+    }
+
+    public void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds) {
+        this.saveChanges(this.inboxCSVPath, InboxBean.class, new InboxConverter(), inboxes, removedIds,
+                Inbox::getId, InboxBean::getId);
+    }
 
+    /**
+     * Reads a CSV file row by row, converting each bean to an entity as soon as it is parsed
+     *
+     * @param path      of the CSV file
+     * @param type      of the beans in the file
+     * @param converter from beans to entities
+     * @return the entities in the file, none if there is no file
+     */
+    private <B, E> List<E> load(String path, Class<B> type, Converter<B, E> converter) {
+        List<E> entities = new ArrayList<>();
+        // From documentation available at http://opencsv.sourceforge.net/
+        try (Reader reader = new BufferedReader(new FileReader(path))) {
+            for (B bean : new CsvToBeanBuilder<B>(reader).withType(type).build()) {
+                entities.add(converter.convertFromBean(bean));
+            }
         } catch (FileNotFoundException e) {
             System.out.println("File not found.");
-            return new ArrayList<>();
+        } catch (IOException e) {
+            System.out.println("IOException. Error reading file.");
         }
-
+        return entities;
     }
 
-    public void saveInboxes(List<Inbox> inboxes) {
-        try {
-            InboxConverter converter = new InboxConverter();
-            List<InboxBean> inboxBeans = converter.convertToBeans(inboxes);
+    /**
+     * Writes every entity to a CSV file, converting each one to a bean just before it is written
+     *
+     * @param path      of the CSV file
+     * @param entities  to write
+     * @param converter from entities to beans
+     */
+    private <B, E> void save(String path, List<E> entities, Converter<B, E> converter) {
+        this.<B>write(path, beanToCsv -> {
+            for (E entity : entities) {
+                beanToCsv.write(converter.convertToBean(entity));
+            }
+        });
+    }
 
-            FileWriter csvFileWriter = new FileWriter(this.inboxCSVPath);
+    /**
+     * A CSV file can only be rewritten as a whole, so the stored rows are streamed into the new file: changed
+     * entities replace the row with their ID, removed ones are dropped, and new ones are appended at the end.
+     * Unchanged rows are copied without being converted to entities.
+     *
+     * @param path       of the CSV file
+     * @param type       of the beans in the file
+     * @param converter  between beans and entities
+     * @param changed    added or changed entities
+     * @param removedIds IDs of the removed entities
+     * @param entityId   gives the ID of an entity
+     * @param beanId     gives the ID of a bean
+     */
+    private <B, E> void saveChanges(String path, Class<B> type, Converter<B, E> converter, List<E> changed,
+                                    List<String> removedIds, Function<E, String> entityId,
+                                    Function<B, String> beanId) {
+        Map<String, E> pending = new LinkedHashMap<>();
+        for (E entity : changed) {
+            pending.put(entityId.apply(entity), entity);
+        }
+        Set<String> removed = new HashSet<>(removedIds);
+        this.<B>write(path, beanToCsv -> {
+            if (Files.exists(Paths.get(path))) {
+                try (Reader reader = new BufferedReader(new FileReader(path))) {
+                    for (B bean : new CsvToBeanBuilder<B>(reader).withType(type).build()) {
+                        String id = beanId.apply(bean);
+                        E entity = pending.remove(id);
+                        if (entity != null) {
+                            beanToCsv.write(converter.convertToBean(entity));
+                        } else if (!removed.contains(id)) {
+                            beanToCsv.write(bean);
+                        }
+                    }
+                }
+            }
+            for (E entity : pending.values()) {
+                beanToCsv.write(converter.convertToBean(entity));
+            }
+        });
+    }
 
-            StatefulBeanToCsv beanToCsv = new StatefulBeanToCsvBuilder(csvFileWriter).build();
-            beanToCsv.write(inboxBeans);
-            csvFileWriter.close();
+    /**
+     * Writes beans through a buffered writer into a temporary file next to the CSV file, then renames it over the
+     * CSV file. If writing fails, the CSV file is left as it was.
+     *
+     * @param path of the CSV file
+     * @param rows writes the beans
+     * @throws GatewayException if the CSV file cannot be written
+     */
+    private <B> void write(String path, Rows<B> rows) {
+        Path target = Paths.get(path);
+        Path temp = null;
+        try {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try (Writer writer = new BufferedWriter(new FileWriter(temp.toFile()))) {
+                // From documentation available at http://opencsv.sourceforge.net/
+                StatefulBeanToCsv<B> beanToCsv = new StatefulBeanToCsvBuilder<B>(writer).build();
+                rows.write(beanToCsv);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
 
         } catch (IOException e) {
-            System.out.println("IOException. Error writing file.");
+            throw new GatewayException("Could not write " + path, e);
         } catch (CsvDataTypeMismatchException e) {
-            System.out.println("Error writing file. Check your data format.");
+            throw new GatewayException("Could not write " + path + ". Check your data format.", e);
         } catch (CsvRequiredFieldEmptyException e) {
-            System.out.println("Error writing file. Missing required field.");
+            throw new GatewayException("Could not write " + path + ". Missing required field.", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.out.println("IOException. Could not remove " + temp);
+                }
+            }
         }
     }
 
+    /**
+     * Writes the rows of a CSV file one bean at a time
+     */
+    private interface Rows<B> {
+        void write(StatefulBeanToCsv<B> beanToCsv)
+                throws IOException, CsvDataTypeMismatchException, CsvRequiredFieldEmptyException;
+    }
+
 
 }
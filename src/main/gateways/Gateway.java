@@ -9,7 +9,7 @@ import java.util.List;
  *
  * @author David Zhao
  */
-public interface Gateway {
+public interface Gateway extends GatewayWriter {
 
 
     /**
@@ -19,13 +19,6 @@ public interface Gateway {
      */
     List<User> loadUsers();
 
-    /**
-     * Saves User objects
-     *
-     * @param users User objects to save
-     */
-    void saveUsers(List<User> users);
-
     /**
      * Load Event objects
      *
@@ -33,20 +26,6 @@ public interface Gateway {
      */
     List<Event> loadEvents();
 
-    /**
-     * Save Event objects
-     *
-     * @param events List of Events to save
-     */
-    void saveEvents(List<Event> events);
-
-    /**
-     * Save Room objects
-     *
-     * @param rooms List of Rooms to save
-     */
-    void saveRooms(List<Room> rooms);
-
     /**
      * Load Room objects
      *
@@ -54,13 +33,6 @@ public interface Gateway {
      */
     List<Room> loadRooms();
 
-    /**
-     * Save Message objects
-     *
-     * @param messages List of Message to save
-     */
-    void saveMessages(List<Message> messages);
-
     /**
      * Load Message objects
      *
@@ -69,16 +41,25 @@ public interface Gateway {
     List<Message> loadMessages();
 
     /**
-     * Save Inbox objects
+     * Load Inbox objects
      *
-     * @param inboxes List of Inbox to save
+     * @return List of Inbox
      */
-    void saveInboxes(List<Inbox> inboxes);
+    List<Inbox> loadInboxes();
 
     /**
-     * Load Inbox objects
+     * Opens a Gateway that can load entities at the same time as other readers of the same data source.
+     * By default the Gateway itself, for Gateways whose loads share no state.
      *
-     * @return List of Inbox
+     * @return a Gateway to load from, to be closed once done
      */
-    List<Inbox> loadInboxes();
+    default Gateway openReader() {
+        return this;
+    }
+
+    /**
+     * Releases the resources held by the Gateway, if any
+     */
+    default void close() {
+    }
 }
@@ -0,0 +1,18 @@
+package main.gateways;
+
+/**
+ * Thrown by a Gateway when a save could not be written. Nothing of the failed save is kept, so the caller still
+ * holds the changes and can save them again.
+ */
+public class GatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message describing what could not be saved
+     * @param cause   the error of the data source
+     */
+    public GatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package main.gateways;
+
+import main.gateways.snapshotgateway.JournalGateway;
+import main.gateways.sqlgateway.SQLiteGateway;
+
+/**
+ * Opens the Gateway a program is started with, from the location given on the command line
+ */
+public class GatewayFactory {
+
+    public static final String JOURNAL_PREFIX = "journal:";
+
+    /**
+     * Opens the Gateway stored at a location
+     *
+     * @param location "journal:" followed by the directory to keep snapshots and a journal in, for a JournalGateway,
+     *                 or else the path of the SQLite database file
+     * @return the Gateway, to be closed once done
+     */
+    public Gateway getGateway(String location) {
+        if (location.startsWith(JOURNAL_PREFIX)) {
+            return new JournalGateway(location.substring(JOURNAL_PREFIX.length()));
+        }
+        return new SQLiteGateway(location);
+    }
+}
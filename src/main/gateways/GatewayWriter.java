@@ -0,0 +1,86 @@
+package main.gateways;
+
+import main.entities.*;
+
+import java.util.List;
+
+/**
+ * The saving half of a Gateway, for whatever only writes entities out, such as the saves of the managers
+ */
+public interface GatewayWriter {
+
+    /**
+     * Saves User objects
+     *
+     * @param users User objects to save
+     */
+    void saveUsers(List<User> users);
+
+    /**
+     * Save Event objects
+     *
+     * @param events List of Events to save
+     */
+    void saveEvents(List<Event> events);
+
+    /**
+     * Save Room objects
+     *
+     * @param rooms List of Rooms to save
+     */
+    void saveRooms(List<Room> rooms);
+
+    /**
+     * Save Message objects
+     *
+     * @param messages List of Message to save
+     */
+    void saveMessages(List<Message> messages);
+
+    /**
+     * Save Inbox objects
+     *
+     * @param inboxes List of Inbox to save
+     */
+    void saveInboxes(List<Inbox> inboxes);
+
+    /**
+     * Saves only the Users added or changed since the last save, and deletes the removed ones
+     *
+     * @param users      added or changed User objects
+     * @param removedIds IDs of the removed Users
+     */
+    void saveUserChanges(List<User> users, List<String> removedIds);
+
+    /**
+     * Saves only the Events added or changed since the last save, and deletes the removed ones
+     *
+     * @param events     added or changed Events
+     * @param removedIds IDs of the removed Events
+     */
+    void saveEventChanges(List<Event> events, List<String> removedIds);
+
+    /**
+     * Saves only the Rooms added or changed since the last save, and deletes the removed ones
+     *
+     * @param rooms      added or changed Rooms
+     * @param removedIds IDs of the removed Rooms
+     */
+    void saveRoomChanges(List<Room> rooms, List<String> removedIds);
+
+    /**
+     * Saves only the Messages added or changed since the last save, and deletes the removed ones
+     *
+     * @param messages   added or changed Messages
+     * @param removedIds IDs of the removed Messages
+     */
+    void saveMessageChanges(List<Message> messages, List<String> removedIds);
+
+    /**
+     * Saves only the Inboxes added or changed since the last save, and deletes the removed ones
+     *
+     * @param inboxes    added or changed Inboxes
+     * @param removedIds IDs of the removed Inboxes
+     */
+    void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds);
+}
@@ -0,0 +1,46 @@
+package main.gateways;
+
+import main.entities.Inbox;
+import main.entities.Message;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface to look up Messages and Inboxes in an external data source one query at a time,
+ * so they do not all have to be loaded at startup
+ */
+public interface MessageRepository {
+
+    /**
+     * Finds a Message by its ID
+     *
+     * @param messageId ID of the Message
+     * @return the Message, or null if there is none with that ID
+     */
+    Message findMessage(String messageId);
+
+    /**
+     * Finds the Messages with the given IDs
+     *
+     * @param messageIds IDs of the Messages
+     * @return the Messages found, in no particular order
+     */
+    List<Message> findMessages(Collection<String> messageIds);
+
+    /**
+     * Finds the Inboxes of a User
+     *
+     * @param userId ID of the User
+     * @return the Inboxes of the User, usually one or none
+     */
+    List<Inbox> findInboxesOfUser(String userId);
+
+    /**
+     * Finds the Inboxes of several Users at once
+     *
+     * @param userIds IDs of the Users
+     * @return the Inboxes of the Users, in no particular order
+     */
+    List<Inbox> findInboxesOfUsers(Collection<String> userIds);
+}
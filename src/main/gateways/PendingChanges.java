@@ -0,0 +1,237 @@
+package main.gateways;
+
+import main.entities.*;
+import main.gateways.converters.*;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * GatewayWriter that collects saves in memory so they can be written to a Gateway later, for example on a
+ * background thread. Every saved entity is copied, by converting it to its bean and back, so later changes to the
+ * entity do not leak into what gets written. Saves collected before the next write are coalesced: an entity saved
+ * twice is written once, as last saved.
+ * <p>
+ * Not thread-safe: collect on one thread, then hand the whole object over to the writing thread.
+ */
+public class PendingChanges implements GatewayWriter {
+
+    private final Table<User> users = new Table<>(new UserConverter(), User::getId);
+    private final Table<Event> events = new EventTable();
+    private final Table<Room> rooms = new Table<>(new RoomConverter(), Room::getId);
+    private final Table<Message> messages = new Table<>(new MessageConverter(), Message::getId);
+    private final Table<Inbox> inboxes = new Table<>(new InboxConverter(), Inbox::getId);
+
+    /**
+     * @return true iff nothing was saved since this was created
+     */
+    public boolean isEmpty() {
+        return users.isEmpty() && events.isEmpty() && rooms.isEmpty() && messages.isEmpty() && inboxes.isEmpty();
+    }
+
+    /**
+     * Writes everything collected to a Gateway, as full saves for tables that were saved as a whole and as
+     * changes otherwise
+     *
+     * @param gateway to write to
+     */
+    public void applyTo(GatewayWriter gateway) {
+        users.applyTo(gateway::saveUsers, gateway::saveUserChanges);
+        rooms.applyTo(gateway::saveRooms, gateway::saveRoomChanges);
+        events.applyTo(gateway::saveEvents, gateway::saveEventChanges);
+        messages.applyTo(gateway::saveMessages, gateway::saveMessageChanges);
+        inboxes.applyTo(gateway::saveInboxes, gateway::saveInboxChanges);
+    }
+
+    /**
+     * Adds the saves collected by another PendingChanges after the ones collected here, so an entity saved by both
+     * is written as the other one saved it. Used to keep the saves of a failed write for the next one.
+     *
+     * @param later saves collected after these ones; not to be used afterwards
+     */
+    public void addLater(PendingChanges later) {
+        users.addLater(later.users);
+        rooms.addLater(later.rooms);
+        events.addLater(later.events);
+        messages.addLater(later.messages);
+        inboxes.addLater(later.inboxes);
+    }
+
+    public void saveUsers(List<User> users) {
+        this.users.replace(users);
+    }
+
+    public void saveUserChanges(List<User> users, List<String> removedIds) {
+        this.users.change(users, removedIds);
+    }
+
+    public void saveEvents(List<Event> events) {
+        this.events.replace(events);
+    }
+
+    public void saveEventChanges(List<Event> events, List<String> removedIds) {
+        this.events.change(events, removedIds);
+    }
+
+    public void saveRooms(List<Room> rooms) {
+        this.rooms.replace(rooms);
+    }
+
+    public void saveRoomChanges(List<Room> rooms, List<String> removedIds) {
+        this.rooms.change(rooms, removedIds);
+    }
+
+    public void saveMessages(List<Message> messages) {
+        this.messages.replace(messages);
+    }
+
+    public void saveMessageChanges(List<Message> messages, List<String> removedIds) {
+        this.messages.change(messages, removedIds);
+    }
+
+    public void saveInboxes(List<Inbox> inboxes) {
+        this.inboxes.replace(inboxes);
+    }
+
+    public void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds) {
+        this.inboxes.change(inboxes, removedIds);
+    }
+
+    /**
+     * The saves collected for one kind of entity
+     */
+    private static class Table<E> {
+
+        private final Converter<Object, E> converter;
+        private final Function<E, String> getId;
+        private final Map<String, E> changed = new LinkedHashMap<>();
+        private final Set<String> removed = new LinkedHashSet<>();
+        private boolean replaced = false;
+
+        @SuppressWarnings("unchecked")
+        Table(Converter<?, E> converter, Function<E, String> getId) {
+            this.converter = (Converter<Object, E>) converter;
+            this.getId = getId;
+        }
+
+        boolean isEmpty() {
+            return !replaced && changed.isEmpty() && removed.isEmpty();
+        }
+
+        /**
+         * Record a save of the whole table, which makes everything collected before it obsolete
+         *
+         * @param entities every entity of the table
+         */
+        void replace(List<E> entities) {
+            changed.clear();
+            removed.clear();
+            replaced = true;
+            this.change(entities, Collections.emptyList());
+        }
+
+        /**
+         * Copy an entity being saved
+         *
+         * @param entity  being saved
+         * @param earlier the copy collected by an earlier save of the same entity, null if there is none
+         * @return the copy to collect
+         */
+        E copy(E entity, E earlier) {
+            return converter.convertFromBean(converter.convertToBean(entity));
+        }
+
+        /**
+         * Called when a copy collected by a later save takes the place of an earlier one
+         *
+         * @param earlier the copy collected before
+         * @param later   the copy replacing it
+         */
+        void merge(E earlier, E later) {
+        }
+
+        /**
+         * Record a save of changes to the table
+         *
+         * @param entities   added or changed entities
+         * @param removedIds IDs of the removed entities
+         */
+        void change(List<E> entities, List<String> removedIds) {
+            for (E entity : entities) {
+                String id = getId.apply(entity);
+                removed.remove(id);
+                changed.put(id, this.copy(entity, replaced ? null : changed.get(id)));
+            }
+            for (String id : removedIds) {
+                changed.remove(id);
+                if (!replaced) {
+                    removed.add(id);
+                }
+            }
+        }
+
+        /**
+         * Record the saves of the same table collected after these ones
+         *
+         * @param later the saves collected afterwards, whose entities are already copies
+         */
+        void addLater(Table<E> later) {
+            if (later.replaced) {
+                changed.clear();
+                removed.clear();
+                replaced = true;
+            }
+            for (Map.Entry<String, E> entry : later.changed.entrySet()) {
+                removed.remove(entry.getKey());
+                E earlier = changed.put(entry.getKey(), entry.getValue());
+                if (earlier != null) {
+                    this.merge(earlier, entry.getValue());
+                }
+            }
+            for (String id : later.removed) {
+                changed.remove(id);
+                if (!replaced) {
+                    removed.add(id);
+                }
+            }
+        }
+
+        void applyTo(Consumer<List<E>> saveAll, BiConsumer<List<E>, List<String>> saveChanges) {
+            if (replaced) {
+                saveAll.accept(new ArrayList<>(changed.values()));
+            } else if (!changed.isEmpty() || !removed.isEmpty()) {
+                saveChanges.accept(new ArrayList<>(changed.values()), new ArrayList<>(removed));
+            }
+        }
+    }
+
+    /**
+     * The saves collected for Events. The attendees and speakers changed since the last save are taken from the
+     * saved Event and handed to its copy, so a Gateway writing the copy can write only those.
+     */
+    private static class EventTable extends Table<Event> {
+
+        EventTable() {
+            super(new EventConverter(), Event::getId);
+        }
+
+        @Override
+        Event copy(Event event, Event earlier) {
+            Event.MemberChanges taken = event.takeMemberChanges();
+            Event copy = super.copy(event, earlier);
+            copy.clearMemberChanges();
+            copy.restoreMemberChanges(taken);
+            if (earlier != null) {
+                this.merge(earlier, copy);
+            }
+            return copy;
+        }
+
+        @Override
+        void merge(Event earlier, Event later) {
+            later.restoreMemberChanges(earlier.takeMemberChanges());
+        }
+    }
+}
@@ -29,5 +29,21 @@ public interface Converter<Serializable, T> {
      */
     List<Serializable> convertToBeans(List<T> values);
 
+    /**
+     * Convert one serializable representation into the original type
+     *
+     * @param bean serializable representation
+     * @return original representation
+     */
+    T convertFromBean(Serializable bean);
+
+    /**
+     * Convert one original type into its serializable representation
+     *
+     * @param value original representation
+     * @return serializable representation
+     */
+    Serializable convertToBean(T value);
+
 
 }
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,24 +24,7 @@ public class EventConverter implements Converter<EventBean, Event> {
         List<Event> events = new ArrayList<>();
 
         for (EventBean eventBean : eventBeans) {
-            Event event = new Event();
-            event.setId(eventBean.getId());
-            event.setRoomID(eventBean.getRoomID());
-            event.setTitle(eventBean.getTitle());
-            event.setTime(LocalDateTime.parse(eventBean.getTime(), this.dateTimeFormatter));
-            event.setType(eventBean.getType());
-            event.setDuration(eventBean.getDuration());
-            event.setCapacity(eventBean.getCapacity());
-
-            for (String attendeeID : this.convertListFromString(eventBean.getAttendeesId())) {
-                event.addAttendees(attendeeID);
-            }
-
-            for (String speakerID : this.convertListFromString(eventBean.getSpeakersID())) {
-                event.addSpeaker(speakerID);
-            }
-
-            events.add(event);
+            events.add(this.convertFromBean(eventBean));
         }
 
         return events;
@@ -50,23 +34,13 @@ public class EventConverter implements Converter<EventBean, Event> {
         List<EventBean> eventBeanList = new ArrayList<>();
 
         for (Event event : events) {
-            EventBean eventBean = new EventBean();
-            eventBean.setRoomID(event.getRoomID());
-            eventBean.setId(event.getId());
-            eventBean.setTitle(event.getTitle());
-            eventBean.setType(event.getType());
-            eventBean.setCapacity(event.getCapacity());
-            eventBean.setDuration(event.getDuration());
-            eventBean.setTime(event.getTime().format(this.dateTimeFormatter));
-            eventBean.setAttendeesId(this.convertListToString(event.getAttendeesID()));
-            eventBean.setSpeakersID(this.convertListToString(event.getSpeakers()));
-            eventBeanList.add(eventBean);
+            eventBeanList.add(this.convertToBean(event));
         }
         return eventBeanList;
 
     }
 
-    private String convertListToString(List<String> list) {
+    private String convertListToString(Collection<String> list) {
 
         String string = String.join("|", list);
         return string;
@@ -79,4 +53,41 @@ public class EventConverter implements Converter<EventBean, Event> {
         return list;
     }
 
+    public Event convertFromBean(EventBean eventBean) {
+        Event event = new Event();
+        event.setId(eventBean.getId());
+        event.setRoomID(eventBean.getRoomID());
+        event.setTitle(eventBean.getTitle());
+        event.setTime(LocalDateTime.parse(eventBean.getTime(), this.dateTimeFormatter));
+        event.setType(eventBean.getType());
+        event.setDuration(eventBean.getDuration());
+        event.setCapacity(eventBean.getCapacity());
+
+        for (String attendeeID : this.convertListFromString(eventBean.getAttendeesId())) {
+            if (!attendeeID.isEmpty()) {
+                event.addAttendees(attendeeID);
+            }
+        }
+
+        for (String speakerID : this.convertListFromString(eventBean.getSpeakersID())) {
+            if (!speakerID.isEmpty()) {
+                event.addSpeaker(speakerID);
+            }
+        }
+        return event;
+    }
+
+    public EventBean convertToBean(Event event) {
+        EventBean eventBean = new EventBean();
+        eventBean.setRoomID(event.getRoomID());
+        eventBean.setId(event.getId());
+        eventBean.setTitle(event.getTitle());
+        eventBean.setType(event.getType());
+        eventBean.setCapacity(event.getCapacity());
+        eventBean.setDuration(event.getDuration());
+        eventBean.setTime(event.getTime().format(this.dateTimeFormatter));
+        eventBean.setAttendeesId(this.convertListToString(event.getAttendeeSet()));
+        eventBean.setSpeakersID(this.convertListToString(event.getSpeakerSet()));
+        return eventBean;
+    }
 }
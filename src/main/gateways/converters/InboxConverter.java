@@ -4,7 +4,6 @@ import main.entities.Inbox;
 import main.gateways.beans.InboxBean;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,13 +16,7 @@ public class InboxConverter implements Converter<InboxBean, Inbox> {
     public List<Inbox> convertFromBeans(List<InboxBean> inboxBeans) {
         List<Inbox> inboxes = new ArrayList<>();
         for (InboxBean inboxBean : inboxBeans) {
-
-            Inbox inbox = new Inbox();
-            inbox.setId(inboxBean.getId());
-            inbox.setUser(inboxBean.getUser());
-            inbox.setMessages(this.convertListFromString(inboxBean.getMessageID()));
-            inboxes.add(inbox);
-
+            inboxes.add(this.convertFromBean(inboxBean));
         }
         return inboxes;
 
@@ -33,11 +26,7 @@ public class InboxConverter implements Converter<InboxBean, Inbox> {
        List<InboxBean> inboxBeans = new ArrayList();
 
        for (Inbox inbox : inboxes) {
-           InboxBean inboxBean = new InboxBean();
-           inboxBean.setId(inbox.getId());
-           inboxBean.setUser(inbox.getUser());
-           inboxBean.setMessageID(this.convertListToString(inbox.getMessages()));
-           inboxBeans.add(inboxBean);
+           inboxBeans.add(this.convertToBean(inbox));
        }
 
         return inboxBeans;
@@ -52,10 +41,32 @@ public class InboxConverter implements Converter<InboxBean, Inbox> {
 
     private List<String> convertListFromString(String string) {
 
-        List<String> list = new ArrayList<>(Arrays.asList(string.split("[\\|]", -1)));
+        List<String> list = new ArrayList<>();
+        if (string == null) {
+            return list;
+        }
+        for (String id : string.split("[\\|]")) {
+            if (!id.isEmpty()) {
+                list.add(id);
+            }
+        }
 
         return list;
     }
 
+    public Inbox convertFromBean(InboxBean inboxBean) {
+        Inbox inbox = new Inbox();
+        inbox.setId(inboxBean.getId());
+        inbox.setUser(inboxBean.getUser());
+        inbox.setMessages(this.convertListFromString(inboxBean.getMessageID()));
+        return inbox;
+    }
 
+    public InboxBean convertToBean(Inbox inbox) {
+        InboxBean inboxBean = new InboxBean();
+        inboxBean.setId(inbox.getId());
+        inboxBean.setUser(inbox.getUser());
+        inboxBean.setMessageID(this.convertListToString(inbox.getMessages()));
+        return inboxBean;
+    }
 }
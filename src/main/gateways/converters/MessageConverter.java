@@ -20,13 +20,7 @@ public class MessageConverter implements Converter<MessageBean, Message> {
         List<Message> messages = new ArrayList<>();
 
         for (MessageBean messageBean : messageBeans) {
-            Message message = new Message();
-            message.setId(messageBean.getId());
-            message.setText(messageBean.getText());
-            message.setSender(messageBean.getSender());
-            message.setTime(LocalDateTime.parse(messageBean.getTime(), this.dateTimeFormatter));
-            messages.add(message);
-
+            messages.add(this.convertFromBean(messageBean));
         }
         return messages;
 
@@ -36,16 +30,28 @@ public class MessageConverter implements Converter<MessageBean, Message> {
         List<MessageBean> messageBeanList = new ArrayList<>();
 
         for (Message message : messages) {
-            MessageBean messageBean = new MessageBean();
-            messageBean.setId(message.getId());
-            messageBean.setSender(message.getSender());
-            messageBean.setTime(message.getTime().format(this.dateTimeFormatter));
-            messageBean.setText(message.getText());
-
-            messageBeanList.add(messageBean);
+            messageBeanList.add(this.convertToBean(message));
         }
 
         return messageBeanList;
 
     }
+
+    public Message convertFromBean(MessageBean messageBean) {
+        Message message = new Message();
+        message.setId(messageBean.getId());
+        message.setText(messageBean.getText());
+        message.setSender(messageBean.getSender());
+        message.setTime(LocalDateTime.parse(messageBean.getTime(), this.dateTimeFormatter));
+        return message;
+    }
+
+    public MessageBean convertToBean(Message message) {
+        MessageBean messageBean = new MessageBean();
+        messageBean.setId(message.getId());
+        messageBean.setSender(message.getSender());
+        messageBean.setTime(message.getTime().format(this.dateTimeFormatter));
+        messageBean.setText(message.getText());
+        return messageBean;
+    }
 }
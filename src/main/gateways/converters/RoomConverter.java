@@ -19,23 +19,7 @@ public class RoomConverter implements Converter<RoomBean, Room> {
         List<Room> rooms = new ArrayList<>();
 
         for (RoomBean roomBean : roomBeans) {
-            Room room = new Room();
-
-            room.setId(roomBean.getId());
-            room.setCapacity(roomBean.getCapacity());
-            room.setRoomNum(roomBean.getRoomNum());
-            if (roomBean.isHasTech()) {
-                room.setTech(true);
-            }
-            if (roomBean.isHasStage()) {
-                room.setStage(true);
-            }
-
-            if (roomBean.isTable()) {
-                room.setToTable(true);
-            }
-
-            rooms.add(room);
+            rooms.add(this.convertFromBean(roomBean));
         }
 
         return rooms;
@@ -44,19 +28,42 @@ public class RoomConverter implements Converter<RoomBean, Room> {
     public List<RoomBean> convertToBeans(List<Room> rooms) {
         List<RoomBean> roomBeanList = new ArrayList<>();
 
-        for (Room room: rooms) {
-            RoomBean roomBean = new RoomBean();
-
-            roomBean.setId(room.getId());
-            roomBean.setCapacity(room.getCapacity());
-            roomBean.setRoomNum(room.getRoomNum());
-            roomBean.setHasStage(room.getHasStage());
-            roomBean.setHasTech(room.getHasTech());
-            roomBean.setTable(room.getIsTable());
-            roomBeanList.add(roomBean);
+        for (Room room : rooms) {
+            roomBeanList.add(this.convertToBean(room));
         }
 
 
         return roomBeanList;
     }
+
+    public Room convertFromBean(RoomBean roomBean) {
+        Room room = new Room();
+
+        room.setId(roomBean.getId());
+        room.setCapacity(roomBean.getCapacity());
+        room.setRoomNum(roomBean.getRoomNum());
+        if (roomBean.isHasTech()) {
+            room.setTech(true);
+        }
+        if (roomBean.isHasStage()) {
+            room.setStage(true);
+        }
+
+        if (roomBean.isTable()) {
+            room.setToTable(true);
+        }
+        return room;
+    }
+
+    public RoomBean convertToBean(Room room) {
+        RoomBean roomBean = new RoomBean();
+
+        roomBean.setId(room.getId());
+        roomBean.setCapacity(room.getCapacity());
+        roomBean.setRoomNum(room.getRoomNum());
+        roomBean.setHasStage(room.getHasStage());
+        roomBean.setHasTech(room.getHasTech());
+        roomBean.setTable(room.getIsTable());
+        return roomBean;
+    }
 }
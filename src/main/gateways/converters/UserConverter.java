@@ -20,16 +20,14 @@ import java.util.Map;
  */
 public class UserConverter implements Converter<UserBean, User>{
 
+    private final UserFactory userFactory = new UserFactory();
+
 
     public List<User> convertFromBeans(List<UserBean> userBeans) {
         List<User> users = new ArrayList<>();
 
-        UserFactory userFactory = new UserFactory();
-        for (UserBean userBean: userBeans) {
-            User user = userFactory.getUser(userBean.getUsername(), userBean.getPassword(), userBean.getRole());
-            user.setId(userBean.getId());
-            users.add(user);
-
+        for (UserBean userBean : userBeans) {
+            users.add(this.convertFromBean(userBean));
         }
         return users;
 
@@ -38,16 +36,26 @@ public class UserConverter implements Converter<UserBean, User>{
     public List<UserBean> convertToBeans(List<User> users) {
         List<UserBean> userBeanList = new ArrayList<>();
 
-        for (User user: users) {
-            UserBean userBean = new UserBean();
-            userBean.setId(user.getId());
-            userBean.setUsername(user.getUsername());
-            userBean.setPassword(user.getPassword());
-            userBean.setRole(user.getType());
-            userBeanList.add(userBean);
+        for (User user : users) {
+            userBeanList.add(this.convertToBean(user));
         }
 
         return userBeanList;
 
     }
+
+    public User convertFromBean(UserBean userBean) {
+        User user = userFactory.getUser(userBean.getUsername(), userBean.getPassword(), userBean.getRole());
+        user.setId(userBean.getId());
+        return user;
+    }
+
+    public UserBean convertToBean(User user) {
+        UserBean userBean = new UserBean();
+        userBean.setId(user.getId());
+        userBean.setUsername(user.getUsername());
+        userBean.setPassword(user.getPassword());
+        userBean.setRole(user.getType());
+        return userBean;
+    }
 }
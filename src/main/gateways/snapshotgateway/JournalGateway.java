@@ -0,0 +1,407 @@
+package main.gateways.snapshotgateway;
+
+import main.entities.*;
+import main.gateways.Gateway;
+import main.gateways.GatewayException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Gateway that appends every save to a journal file instead of rewriting the stored tables, so a save costs as much
+ * as the change it records. Loading reads the snapshots written by SnapshotGateway and replays the journal on top
+ * of them. Once the journal holds enough entries it is compacted: the replayed tables are written as new snapshots
+ * and the journal is emptied.
+ * <p>
+ * Each journal entry is its length, a CRC32 checksum and a snapshot holding the table, the removed ids and the
+ * saved entities. An entry cut short by a crash fails its checksum and is dropped together with anything after it.
+ * Replaying an entry twice gives the same result, so a crash during compaction loses nothing either.
+ */
+public class JournalGateway implements Gateway {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private static final String USERS = "users";
+    private static final String EVENTS = "events";
+    private static final String ROOMS = "rooms";
+    private static final String MESSAGES = "messages";
+    private static final String INBOXES = "inboxes";
+
+    private final SnapshotGateway snapshots;
+    private final Path journalPath;
+    private final int compactionThreshold;
+    private FileChannel journal;
+    private int entryCount;
+    private Map<String, List<ByteBuffer>> entries;
+
+    /**
+     * Creates a gateway keeping its snapshots and journal in the default directory
+     */
+    public JournalGateway() {
+        this(SnapshotGateway.DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Creates a gateway keeping its snapshots and journal in the given directory
+     *
+     * @param directory of the snapshot and journal files
+     */
+    public JournalGateway(String directory) {
+        this(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a gateway keeping its snapshots and journal in the given directory
+     *
+     * @param directory           of the snapshot and journal files
+     * @param compactionThreshold number of journal entries after which the journal is compacted
+     */
+    public JournalGateway(String directory, int compactionThreshold) {
+        this.snapshots = new SnapshotGateway(directory);
+        this.journalPath = Paths.get(directory, "journal.log");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public List<User> loadUsers() {
+        return this.load(USERS, this.snapshots.userPath, this.snapshots::readUser, User::getId, true);
+    }
+
+    public void saveUsers(List<User> users) {
+        this.append(USERS, true, users, Collections.emptyList(), this.snapshots::writeUser);
+    }
+
+    public void saveUserChanges(List<User> users, List<String> removedIds) {
+        this.append(USERS, false, users, removedIds, this.snapshots::writeUser);
+    }
+
+    public List<Event> loadEvents() {
+        return this.load(EVENTS, this.snapshots.eventPath, this.snapshots::readEvent, Event::getId, true);
+    }
+
+    public void saveEvents(List<Event> events) {
+        this.append(EVENTS, true, events, Collections.emptyList(), this.snapshots::writeEvent);
+    }
+
+    public void saveEventChanges(List<Event> events, List<String> removedIds) {
+        this.append(EVENTS, false, events, removedIds, this.snapshots::writeEvent);
+    }
+
+    public List<Room> loadRooms() {
+        return this.load(ROOMS, this.snapshots.roomPath, this.snapshots::readRoom, Room::getId, true);
+    }
+
+    public void saveRooms(List<Room> rooms) {
+        this.append(ROOMS, true, rooms, Collections.emptyList(), this.snapshots::writeRoom);
+    }
+
+    public void saveRoomChanges(List<Room> rooms, List<String> removedIds) {
+        this.append(ROOMS, false, rooms, removedIds, this.snapshots::writeRoom);
+    }
+
+    public List<Message> loadMessages() {
+        return this.load(MESSAGES, this.snapshots.messagePath, this.snapshots::readMessage, Message::getId, true);
+    }
+
+    public void saveMessages(List<Message> messages) {
+        this.append(MESSAGES, true, messages, Collections.emptyList(), this.snapshots::writeMessage);
+    }
+
+    public void saveMessageChanges(List<Message> messages, List<String> removedIds) {
+        this.append(MESSAGES, false, messages, removedIds, this.snapshots::writeMessage);
+    }
+
+    public List<Inbox> loadInboxes() {
+        return this.load(INBOXES, this.snapshots.inboxPath, this.snapshots::readInbox, Inbox::getId, true);
+    }
+
+    public void saveInboxes(List<Inbox> inboxes) {
+        this.append(INBOXES, true, inboxes, Collections.emptyList(), this.snapshots::writeInbox);
+    }
+
+    public void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds) {
+        this.append(INBOXES, false, inboxes, removedIds, this.snapshots::writeInbox);
+    }
+
+    /**
+     * Writes every table, journal replayed, as a new snapshot and empties the journal.
+     * If a snapshot cannot be written the journal is kept, so nothing is lost.
+     *
+     * @throws GatewayException if the journal could not be compacted
+     */
+    public synchronized void compact() {
+        try {
+            this.compact(USERS, this.snapshots.userPath, this.snapshots::readUser, this.snapshots::writeUser,
+                    User::getId);
+            this.compact(ROOMS, this.snapshots.roomPath, this.snapshots::readRoom, this.snapshots::writeRoom,
+                    Room::getId);
+            this.compact(EVENTS, this.snapshots.eventPath, this.snapshots::readEvent, this.snapshots::writeEvent,
+                    Event::getId);
+            this.compact(MESSAGES, this.snapshots.messagePath, this.snapshots::readMessage,
+                    this.snapshots::writeMessage, Message::getId);
+            this.compact(INBOXES, this.snapshots.inboxPath, this.snapshots::readInbox, this.snapshots::writeInbox,
+                    Inbox::getId);
+            FileChannel channel = this.openJournal();
+            channel.truncate(0);
+            channel.force(false);
+            this.entryCount = 0;
+            this.entries = Collections.emptyMap();
+        } catch (IOException e) {
+            throw new GatewayException("Could not compact the journal", e);
+        }
+    }
+
+    /**
+     * Writes one table, journal replayed, as a new snapshot
+     *
+     * @param table  to write
+     * @param file   of the snapshot of the table
+     * @param reader decodes one entity
+     * @param writer encodes one entity
+     * @param getId  gives the ID of an entity
+     * @throws IOException if the snapshot cannot be written
+     */
+    private <E> void compact(String table, Path file, SnapshotGateway.RecordReader<E> reader,
+                             SnapshotGateway.RecordWriter<E> writer, Function<E, String> getId) throws IOException {
+        // the snapshot is about to be replaced, so it is read onto the heap instead of being mapped
+        SnapshotGateway.write(file, this.load(table, file, reader, getId, false), writer);
+    }
+
+    /**
+     * Closes the journal file
+     */
+    @Override
+    public synchronized void close() {
+        if (this.journal != null) {
+            try {
+                this.journal.close();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            this.journal = null;
+        }
+    }
+
+    /**
+     * Appends one entry to the journal and syncs it to disk, compacting the journal if it has grown large enough
+     *
+     * @param table      the entities belong to
+     * @param replace    true if the entities replace the whole table, false if they are changes to it
+     * @param entities   added or changed entities
+     * @param removedIds IDs of the removed entities
+     * @param record     encodes one entity
+     * @throws GatewayException if the entry could not be written, in which case the journal is left as it was
+     */
+    private synchronized <E> void append(String table, boolean replace, List<E> entities, List<String> removedIds,
+                                         SnapshotGateway.RecordWriter<E> record) {
+        if (!replace && entities.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.startRecord();
+        writer.writeString(table);
+        writer.writeBoolean(replace);
+        writer.writeStrings(removedIds, removedIds.size());
+        for (E entity : entities) {
+            writer.startRecord();
+            record.write(writer, entity);
+        }
+        ByteBuffer[] payload = writer.encode();
+        CRC32 checksum = new CRC32();
+        int length = 0;
+        for (ByteBuffer buffer : payload) {
+            length += buffer.remaining();
+            checksum.update(buffer.duplicate());
+        }
+        ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+        header.putInt(length).putInt((int) checksum.getValue());
+        header.flip();
+        try {
+            FileChannel channel = this.openJournal();
+            SnapshotWriter.writeFully(channel, header);
+            for (ByteBuffer buffer : payload) {
+                SnapshotWriter.writeFully(channel, buffer);
+            }
+            channel.force(false);
+            this.entryCount++;
+            this.entries = null;
+        } catch (IOException e) {
+            // reopening drops whatever part of the entry made it to the file
+            this.close();
+            throw new GatewayException("Could not write to the journal", e);
+        }
+        if (this.entryCount >= this.compactionThreshold) {
+            try {
+                this.compact();
+            } catch (GatewayException e) {
+                // the entry is already on disk, so the save went through; compacting is tried again next time
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the journal for appending, the first time it is needed. A torn entry left at the end of the file by a
+     * crash is cut off, so that new entries are not written after it.
+     *
+     * @return the journal, positioned at its end
+     * @throws IOException if the journal cannot be opened
+     */
+    private FileChannel openJournal() throws IOException {
+        if (this.journal == null) {
+            Files.createDirectories(this.journalPath.toAbsolutePath().getParent());
+            FileChannel channel = FileChannel.open(this.journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Map<String, List<ByteBuffer>> scanned = new HashMap<>();
+            long end = this.scanJournal(scanned);
+            this.entries = scanned;
+            this.entryCount = 0;
+            for (List<ByteBuffer> tableEntries : scanned.values()) {
+                this.entryCount += tableEntries.size();
+            }
+            channel.truncate(end);
+            channel.position(end);
+            this.journal = channel;
+        }
+        return this.journal;
+    }
+
+    /**
+     * Loads one table: the entities of its snapshot with the journal entries of the table replayed on top
+     *
+     * @param table  to load
+     * @param file   of the snapshot of the table
+     * @param record decodes one entity
+     * @param getId  gives the ID of an entity
+     * @param mapped true to map the snapshot, false to read it onto the heap
+     * @return the entities of the table as last saved
+     */
+    private <E> List<E> load(String table, Path file, SnapshotGateway.RecordReader<E> record,
+                             Function<E, String> getId, boolean mapped) {
+        List<ByteBuffer> tableEntries = this.journalEntries().getOrDefault(table, Collections.emptyList());
+        return this.replay(tableEntries, this.snapshots.load(file, record, mapped), record, getId);
+    }
+
+    /**
+     * Returns the intact journal entries by table. The journal is scanned once and the entries are kept until the
+     * next append or compaction, so loading every table at startup, or compacting, reads the journal only once.
+     *
+     * @return the payload of each entry, in the order they were written, by the table they belong to
+     */
+    private synchronized Map<String, List<ByteBuffer>> journalEntries() {
+        if (this.entries == null) {
+            Map<String, List<ByteBuffer>> scanned = new HashMap<>();
+            try {
+                this.scanJournal(scanned);
+            } catch (IOException e) {
+                System.out.println("IOException. Error reading file.");
+                System.out.println(e.getMessage());
+                return scanned;
+            }
+            this.entries = scanned;
+        }
+        return this.entries;
+    }
+
+    /**
+     * Applies the journal entries of one table, in the order they were written, to the entities of its snapshot
+     *
+     * @param tableEntries payloads of the journal entries of the table
+     * @param stored       entities of the snapshot
+     * @param record       decodes one entity
+     * @param getId        gives the ID of an entity
+     * @return the entities of the table as last saved
+     */
+    private <E> List<E> replay(List<ByteBuffer> tableEntries, List<E> stored, SnapshotGateway.RecordReader<E> record,
+                               Function<E, String> getId) {
+        Map<String, E> entities = new LinkedHashMap<>();
+        for (E entity : stored) {
+            entities.put(getId.apply(entity), entity);
+        }
+        try {
+            for (ByteBuffer payload : tableEntries) {
+                SnapshotReader entry = new SnapshotReader(payload.duplicate(), this.journalPath.toString());
+                // the table, already known
+                entry.readString();
+                boolean replace = entry.readBoolean();
+                List<String> removedIds = entry.readStrings();
+                if (replace) {
+                    entities.clear();
+                }
+                for (int i = 1; i < entry.getRecordCount(); i++) {
+                    E entity = record.read(entry);
+                    entities.put(getId.apply(entity), entity);
+                }
+                for (String id : removedIds) {
+                    entities.remove(id);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("IOException. Error reading file.");
+            System.out.println(e.getMessage());
+        }
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Reads the journal entry by entry, stopping at the first one that is incomplete or fails its checksum.
+     * Only one entry is held in memory besides the ones handed out.
+     *
+     * @param entries receives the payload of each intact entry, added to the list of the table it belongs to
+     * @return the length of the intact part of the journal
+     * @throws IOException if the journal cannot be read
+     */
+    private long scanJournal(Map<String, List<ByteBuffer>> entries) throws IOException {
+        if (!Files.exists(this.journalPath)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(this.journalPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+            long end = 0;
+            while (size - end >= header.capacity()) {
+                header.clear();
+                readFully(channel, header);
+                int length = header.getInt();
+                int expected = header.getInt();
+                if (length < 0 || length > size - end - header.capacity()) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload);
+                CRC32 checksum = new CRC32();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expected) {
+                    break;
+                }
+                String table = new SnapshotReader(payload.duplicate(), this.journalPath.toString()).readString();
+                entries.computeIfAbsent(table, key -> new ArrayList<>()).add(payload);
+                end += header.capacity() + length;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Fills a buffer from the current position of a channel
+     *
+     * @param channel to read from
+     * @param buffer  to fill, flipped for reading afterwards
+     * @throws IOException if the channel ends before the buffer is full
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of the journal");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,311 @@
+package main.gateways.snapshotgateway;
+
+import main.entities.*;
+import main.gateways.Gateway;
+import main.gateways.GatewayException;
+import main.usecases.UserFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Gateway that stores each kind of entity as a compact binary snapshot file.
+ * Ids and other strings are stored once per file and referred to by index, and times are stored as numbers,
+ * so loading needs no text parsing. Loads read the files through memory-mapping; saving changes reads the file
+ * it is about to replace from a copy on the heap instead, as a mapped file cannot be replaced on every platform.
+ * Saving changes still rewrites the whole file; JournalGateway appends the changes instead.
+ */
+public class SnapshotGateway implements Gateway {
+
+    public static final String DEFAULT_DIRECTORY = "src/store";
+
+    final Path userPath;
+    final Path eventPath;
+    final Path roomPath;
+    final Path messagePath;
+    final Path inboxPath;
+    private final UserFactory userFactory;
+
+    /**
+     * Creates a gateway storing its snapshots in the default directory
+     */
+    public SnapshotGateway() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Creates a gateway storing its snapshots in the given directory
+     *
+     * @param directory of the snapshot files
+     */
+    public SnapshotGateway(String directory) {
+        this.userPath = Paths.get(directory, "users.snap");
+        this.eventPath = Paths.get(directory, "events.snap");
+        this.roomPath = Paths.get(directory, "rooms.snap");
+        this.messagePath = Paths.get(directory, "messages.snap");
+        this.inboxPath = Paths.get(directory, "inboxes.snap");
+        this.userFactory = new UserFactory();
+    }
+
+    public List<User> loadUsers() {
+        return this.load(this.userPath, this::readUser, true);
+    }
+
+    public void saveUsers(List<User> users) {
+        this.save(this.userPath, users, this::writeUser);
+    }
+
+    public void saveUserChanges(List<User> users, List<String> removedIds) {
+        List<User> stored = this.load(this.userPath, this::readUser, false);
+        this.save(this.userPath, mergeChanges(stored, users, removedIds, User::getId), this::writeUser);
+    }
+
+    User readUser(SnapshotReader reader) {
+        String id = reader.readString();
+        User user = this.userFactory.getUser(reader.readString(), reader.readString(), reader.readString());
+        user.setId(id);
+        return user;
+    }
+
+    void writeUser(SnapshotWriter writer, User user) {
+        writer.writeString(user.getId());
+        writer.writeString(user.getUsername());
+        writer.writeString(user.getPassword());
+        writer.writeString(user.getType());
+    }
+
+    public List<Event> loadEvents() {
+        return this.load(this.eventPath, this::readEvent, true);
+    }
+
+    public void saveEvents(List<Event> events) {
+        this.save(this.eventPath, events, this::writeEvent);
+    }
+
+    public void saveEventChanges(List<Event> events, List<String> removedIds) {
+        List<Event> stored = this.load(this.eventPath, this::readEvent, false);
+        this.save(this.eventPath, mergeChanges(stored, events, removedIds, Event::getId), this::writeEvent);
+    }
+
+    Event readEvent(SnapshotReader reader) {
+        Event event = new Event();
+        event.setId(reader.readString());
+        event.setTitle(reader.readString());
+        event.setRoomID(reader.readString());
+        event.setType(reader.readString());
+        event.setTime(reader.readTime());
+        event.setDuration(reader.readInt());
+        event.setCapacity(reader.readInt());
+        for (String attendeeId : reader.readStrings()) {
+            event.addAttendees(attendeeId);
+        }
+        for (String speakerId : reader.readStrings()) {
+            event.addSpeaker(speakerId);
+        }
+        return event;
+    }
+
+    void writeEvent(SnapshotWriter writer, Event event) {
+        writer.writeString(event.getId());
+        writer.writeString(event.getTitle());
+        writer.writeString(event.getRoomID());
+        writer.writeString(event.getType());
+        writer.writeTime(event.getTime());
+        writer.writeInt(event.getDuration());
+        writer.writeInt(event.getCapacity());
+        Set<String> attendeeIds = event.getAttendeeSet();
+        writer.writeStrings(attendeeIds, attendeeIds.size());
+        Set<String> speakerIds = event.getSpeakerSet();
+        writer.writeStrings(speakerIds, speakerIds.size());
+    }
+
+    public List<Room> loadRooms() {
+        return this.load(this.roomPath, this::readRoom, true);
+    }
+
+    public void saveRooms(List<Room> rooms) {
+        this.save(this.roomPath, rooms, this::writeRoom);
+    }
+
+    public void saveRoomChanges(List<Room> rooms, List<String> removedIds) {
+        List<Room> stored = this.load(this.roomPath, this::readRoom, false);
+        this.save(this.roomPath, mergeChanges(stored, rooms, removedIds, Room::getId), this::writeRoom);
+    }
+
+    Room readRoom(SnapshotReader reader) {
+        Room room = new Room();
+        room.setId(reader.readString());
+        room.setRoomNum(reader.readInt());
+        room.setCapacity(reader.readInt());
+        room.setTech(reader.readBoolean());
+        room.setToTable(reader.readBoolean());
+        room.setStage(reader.readBoolean());
+        return room;
+    }
+
+    void writeRoom(SnapshotWriter writer, Room room) {
+        writer.writeString(room.getId());
+        writer.writeInt(room.getRoomNum());
+        writer.writeInt(room.getCapacity());
+        writer.writeBoolean(room.getHasTech());
+        writer.writeBoolean(room.getIsTable());
+        writer.writeBoolean(room.getHasStage());
+    }
+
+    public List<Message> loadMessages() {
+        return this.load(this.messagePath, this::readMessage, true);
+    }
+
+    public void saveMessages(List<Message> messages) {
+        this.save(this.messagePath, messages, this::writeMessage);
+    }
+
+    public void saveMessageChanges(List<Message> messages, List<String> removedIds) {
+        List<Message> stored = this.load(this.messagePath, this::readMessage, false);
+        this.save(this.messagePath, mergeChanges(stored, messages, removedIds, Message::getId), this::writeMessage);
+    }
+
+    Message readMessage(SnapshotReader reader) {
+        Message message = new Message();
+        message.setId(reader.readString());
+        message.setSender(reader.readString());
+        message.setText(reader.readString());
+        message.setTime(reader.readTime());
+        return message;
+    }
+
+    void writeMessage(SnapshotWriter writer, Message message) {
+        writer.writeString(message.getId());
+        writer.writeString(message.getSender());
+        writer.writeString(message.getText());
+        writer.writeTime(message.getTime());
+    }
+
+    public List<Inbox> loadInboxes() {
+        return this.load(this.inboxPath, this::readInbox, true);
+    }
+
+    public void saveInboxes(List<Inbox> inboxes) {
+        this.save(this.inboxPath, inboxes, this::writeInbox);
+    }
+
+    public void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds) {
+        List<Inbox> stored = this.load(this.inboxPath, this::readInbox, false);
+        this.save(this.inboxPath, mergeChanges(stored, inboxes, removedIds, Inbox::getId), this::writeInbox);
+    }
+
+    Inbox readInbox(SnapshotReader reader) {
+        Inbox inbox = new Inbox();
+        inbox.setId(reader.readString());
+        inbox.setUser(reader.readString());
+        inbox.setMessages(reader.readStrings());
+        return inbox;
+    }
+
+    void writeInbox(SnapshotWriter writer, Inbox inbox) {
+        writer.writeString(inbox.getId());
+        writer.writeString(inbox.getUser());
+        writer.writeStrings(inbox.getMessages(), inbox.getMessages().size());
+    }
+
+    /**
+     * Reads every record of a snapshot file
+     *
+     * @param file   of the snapshot
+     * @param record decodes one entity
+     * @param mapped true to map the file, false to copy it onto the heap, as needed before replacing it
+     * @return the entities in the file, none if there is no file
+     */
+    <E> List<E> load(Path file, RecordReader<E> record, boolean mapped) {
+        List<E> entities = new ArrayList<>();
+        if (!Files.exists(file)) {
+            System.out.println("File not found.");
+            return entities;
+        }
+        try {
+            SnapshotReader reader = new SnapshotReader(file, mapped);
+            for (int i = 0; i < reader.getRecordCount(); i++) {
+                entities.add(record.read(reader));
+            }
+        } catch (IOException e) {
+            System.out.println("IOException. Error reading file.");
+            System.out.println(e.getMessage());
+        }
+        return entities;
+    }
+
+    /**
+     * Replaces a snapshot file with the given entities
+     *
+     * @param file     of the snapshot
+     * @param entities to write
+     * @param record   encodes one entity
+     * @throws GatewayException if the snapshot cannot be written, in which case the file is left as it was
+     */
+    private <E> void save(Path file, List<E> entities, RecordWriter<E> record) {
+        try {
+            write(file, entities, record);
+        } catch (IOException e) {
+            throw new GatewayException("Could not write " + file, e);
+        }
+    }
+
+    /**
+     * Replaces a snapshot file with the given entities
+     *
+     * @param file     of the snapshot
+     * @param entities to write
+     * @param record   encodes one entity
+     * @throws IOException if the snapshot cannot be written, in which case the file is left as it was
+     */
+    static <E> void write(Path file, List<E> entities, RecordWriter<E> record) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter();
+        for (E entity : entities) {
+            writer.startRecord();
+            record.write(writer, entity);
+        }
+        writer.writeTo(file);
+    }
+
+    /**
+     * A snapshot can only be rewritten as a whole, so the changes are merged into what is stored
+     *
+     * @param stored     entities currently in the snapshot
+     * @param changed    added or changed entities
+     * @param removedIds IDs of the removed entities
+     * @param getId      gives the ID of an entity
+     * @return the entities to write back
+     */
+    static <E> List<E> mergeChanges(List<E> stored, List<E> changed, List<String> removedIds,
+                                     Function<E, String> getId) {
+        Map<String, E> merged = new LinkedHashMap<>();
+        for (E entity : stored) {
+            merged.put(getId.apply(entity), entity);
+        }
+        for (E entity : changed) {
+            merged.put(getId.apply(entity), entity);
+        }
+        for (String id : removedIds) {
+            merged.remove(id);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Decodes one entity from a snapshot
+     */
+    interface RecordReader<E> {
+        E read(SnapshotReader reader);
+    }
+
+    /**
+     * Encodes one entity into a snapshot
+     */
+    interface RecordWriter<E> {
+        void write(SnapshotWriter writer, E entity);
+    }
+}
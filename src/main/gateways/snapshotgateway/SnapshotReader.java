@@ -0,0 +1,106 @@
+package main.gateways.snapshotgateway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the records of one snapshot file written by SnapshotWriter, reading them either from a memory-mapped view
+ * of the file, so no copy of the file is made on the heap, or from a copy of the file on the heap. A mapped file
+ * cannot be replaced on every platform while the mapping is alive, so files about to be rewritten are copied.
+ */
+class SnapshotReader {
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final int recordCount;
+
+    /**
+     * Maps a snapshot file into memory, or copies it onto the heap, and decodes its string table
+     *
+     * @param file   of the snapshot
+     * @param mapped true to map the file, false to copy it
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    SnapshotReader(Path file, boolean mapped) throws IOException {
+        this(mapped ? map(file) : ByteBuffer.wrap(Files.readAllBytes(file)), file.toString());
+    }
+
+    /**
+     * Decodes the string table of a snapshot held in a buffer
+     *
+     * @param buffer positioned at the start of the snapshot
+     * @param source of the snapshot, for error messages
+     * @throws IOException if the buffer does not hold a snapshot
+     */
+    SnapshotReader(ByteBuffer buffer, String source) throws IOException {
+        this.buffer = buffer;
+        if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != SnapshotWriter.MAGIC) {
+            throw new IOException(source + " is not a snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException(source + " has unsupported snapshot version " + version);
+        }
+        this.strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        this.recordCount = buffer.getInt();
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return the number of records in the snapshot
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    String readString() {
+        int index = buffer.getInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    /**
+     * @return the strings written by SnapshotWriter.writeStrings
+     */
+    List<String> readStrings() {
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(this.readString());
+        }
+        return values;
+    }
+
+    int readInt() {
+        return buffer.getInt();
+    }
+
+    boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    LocalDateTime readTime() {
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,166 @@
+package main.gateways.snapshotgateway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the records of one snapshot file.
+ * Every string is written once to a string table at the start of the file, records refer to it by index.
+ * Times are written as seconds and nanoseconds since 1970-01-01T00:00.
+ *
+ * File layout: magic, version, string count, (length, UTF-8 bytes) per string, record count, records.
+ */
+class SnapshotWriter {
+
+    static final int MAGIC = 0x534E4150; // "SNAP"
+    static final int VERSION = 1;
+
+    private final Map<String, Integer> stringIndex;
+    private final List<String> strings;
+    private ByteBuffer records;
+    private int recordCount;
+
+    SnapshotWriter() {
+        this.stringIndex = new HashMap<>();
+        this.strings = new ArrayList<>();
+        this.records = ByteBuffer.allocate(64 * 1024);
+        this.recordCount = 0;
+    }
+
+    /**
+     * Marks the start of a new record
+     */
+    void startRecord() {
+        recordCount++;
+    }
+
+    /**
+     * @param value to write as an index into the string table, -1 for null
+     */
+    void writeString(String value) {
+        if (value == null) {
+            this.writeInt(-1);
+            return;
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            stringIndex.put(value, index);
+            strings.add(value);
+        }
+        this.writeInt(index);
+    }
+
+    /**
+     * @param values to write as a count followed by one string table index each
+     */
+    void writeStrings(Iterable<String> values, int count) {
+        this.writeInt(count);
+        for (String value : values) {
+            this.writeString(value);
+        }
+    }
+
+    void writeInt(int value) {
+        this.ensure(Integer.BYTES);
+        records.putInt(value);
+    }
+
+    void writeBoolean(boolean value) {
+        this.ensure(1);
+        records.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * @param time to write as seconds and nanoseconds since 1970-01-01T00:00
+     */
+    void writeTime(LocalDateTime time) {
+        this.ensure(Long.BYTES + Integer.BYTES);
+        records.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        records.putInt(time.getNano());
+    }
+
+    private void ensure(int bytes) {
+        if (records.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + bytes));
+            records.flip();
+            larger.put(records);
+            records = larger;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to the given one, then renames it over the given file,
+     * so a failed write leaves the previous snapshot intact.
+     *
+     * @param target file of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    void writeTo(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (ByteBuffer buffer : this.encode()) {
+                    writeFully(channel, buffer);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the snapshot in the order it is laid out in a file, ready to be written
+     */
+    ByteBuffer[] encode() {
+        ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(strings.size());
+        header.flip();
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES);
+        count.putInt(recordCount);
+        count.flip();
+        ByteBuffer body = records.duplicate();
+        body.flip();
+        return new ByteBuffer[]{header, this.encodeStrings(), count, body};
+    }
+
+    private ByteBuffer encodeStrings() {
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int size = 0;
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += Integer.BYTES + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package main.gateways.sqlgateway;
+
+import java.sql.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Owns the connection to an SQLite database: opens it with the journal and cache settings the app needs,
+ * keeps the most recently used prepared statements open for reuse, and closes everything on close().
+ */
+class ConnectionManager implements AutoCloseable {
+
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final Connection conn;
+    private final Map<String, PreparedStatement> statements;
+
+    /**
+     * Opens a connection to the database file at the given path, creating it if needed
+     *
+     * @param path of the database file
+     * @throws SQLException if the database cannot be opened
+     */
+    ConnectionManager(String path) throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:sqlite:" + path);
+        // least recently used statements are closed once the cache is full
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > STATEMENT_CACHE_SIZE) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.configure();
+    }
+
+    /**
+     * Write-ahead logging lets reads go on during a write and turns each commit into an append, which together with
+     * synchronous=NORMAL only syncs to disk at checkpoints. The page cache and memory map keep the working set
+     * in memory.
+     */
+    private void configure() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL;");
+            stmt.execute("PRAGMA synchronous = NORMAL;");
+            stmt.execute("PRAGMA cache_size = -16000;"); // in KiB, so about 16MB
+            stmt.execute("PRAGMA mmap_size = 268435456;"); // 256MB
+            stmt.execute("PRAGMA temp_store = MEMORY;");
+        }
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing the one prepared before if it is still cached.
+     * The statement belongs to this ConnectionManager and must not be closed by the caller, but result sets
+     * obtained from it should be.
+     *
+     * @param sql statement with parameters
+     * @return a prepared statement with no batched rows
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt == null || pstmt.isClosed()) {
+            pstmt = conn.prepareStatement(sql);
+            statements.put(sql, pstmt);
+        }
+        return pstmt;
+    }
+
+    /**
+     * Creates a plain statement, to be closed by the caller
+     *
+     * @return a new statement
+     * @throws SQLException if the statement cannot be created
+     */
+    Statement createStatement() throws SQLException {
+        return conn.createStatement();
+    }
+
+    /**
+     * Starts a transaction
+     *
+     * @throws SQLException if the transaction cannot be started
+     */
+    void begin() throws SQLException {
+        conn.setAutoCommit(false);
+    }
+
+    /**
+     * Commits the current transaction and goes back to autocommit
+     *
+     * @throws SQLException if the transaction cannot be committed
+     */
+    void commit() throws SQLException {
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    /**
+     * Rolls back the current transaction and goes back to autocommit
+     *
+     * @throws SQLException if the transaction cannot be rolled back
+     */
+    void rollback() throws SQLException {
+        try {
+            conn.rollback();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Closes the cached statements and the connection
+     */
+    @Override
+    public void close() {
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            closeQuietly(iterator.next());
+            iterator.remove();
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
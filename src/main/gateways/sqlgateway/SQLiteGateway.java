@@ -2,40 +2,98 @@ package main.gateways.sqlgateway;
 
 import main.entities.*;
 import main.gateways.Gateway;
+import main.gateways.GatewayException;
+import main.gateways.MessageRepository;
 import main.gateways.beans.*;
 import main.gateways.converters.*;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class implements the storage and loading of entities from an SQLite database.
  * It can be easily modified for any JDBC-compatible DB driver
+ * Messages and Inboxes can also be queried one at a time through MessageRepository.
+ * Its methods are synchronized, so entities can be looked up while changes are saved from another thread.
  */
-public class SQLiteGateway implements Gateway {
+public class SQLiteGateway implements Gateway, MessageRepository {
 
-    private Connection conn;
+    public static final String DEFAULT_PATH = "src/store/app.db";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    // 1: attendees, speakers and inbox messages live in their own tables
+    private static final int SCHEMA_VERSION = 1;
+
+    private ConnectionManager connection;
+    private final String path;
+    private final int batchSize;
 
     /**
      * Initial constructor that establishes a connection to the database
      * and creates the appropriate tables
      */
     public SQLiteGateway() {
-        this.connect();
-        if (conn != null) {
+        this(DEFAULT_PATH);
+    }
+
+    /**
+     * Constructor that establishes a connection to the database at the given path and creates the appropriate tables
+     *
+     * @param path of the database file
+     */
+    public SQLiteGateway(String path) {
+        this(path, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor that establishes a connection to the database and creates the appropriate tables
+     *
+     * @param path      of the database file
+     * @param batchSize number of rows sent to the database at once when saving
+     */
+    public SQLiteGateway(String path, int batchSize) {
+        this(path, batchSize, true);
+    }
+
+    /**
+     * Constructor that establishes a connection to the database
+     *
+     * @param path       of the database file
+     * @param batchSize  number of rows sent to the database at once when saving
+     * @param initialize whether to create the tables and migrate the database
+     */
+    private SQLiteGateway(String path, int batchSize, boolean initialize) {
+        this.path = path;
+        this.batchSize = batchSize;
+        this.connect(path);
+        if (connection != null && initialize) {
             this.initialize();
         }
 
     }
 
+    /**
+     * Opens a second connection to the same database. In WAL mode it can read while this Gateway reads or writes.
+     *
+     * @return a Gateway on its own connection, to be closed once done
+     */
+    @Override
+    public synchronized Gateway openReader() {
+        return new SQLiteGateway(this.path, this.batchSize, false);
+    }
+
     /**
      * Connects to the database
+     *
+     * @param path of the database file
      */
-    private void connect() {
+    private void connect(String path) {
         try {
-            String url = "jdbc:sqlite:src/store/app.db";
-            this.conn = DriverManager.getConnection(url);
+            this.connection = new ConnectionManager(path);
 
         } catch (SQLException e) {
             System.out.println(e.getMessage());
@@ -43,6 +101,17 @@ public class SQLiteGateway implements Gateway {
         }
     }
 
+    /**
+     * Closes the connection to the database
+     */
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
     /**
      * Initializes the database by creating a schema
      */
@@ -52,6 +121,8 @@ public class SQLiteGateway implements Gateway {
         this.createRoomTable();
         this.createInboxTable();
         this.createEventTable();
+        this.createMembershipTables();
+        this.migrate();
     }
 
     /**
@@ -64,8 +135,7 @@ public class SQLiteGateway implements Gateway {
                 + " password string NOT NULL, \n"
                 + " role string NOT NULL\n"
                 + ");";
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
@@ -82,9 +152,10 @@ public class SQLiteGateway implements Gateway {
                 + " time string NOT NULL,\n"
                 + " sender string NOT NULL"
                 + ");";
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            // nothing queries messages by time, so the index older versions kept on it is only a cost on writes
+            stmt.execute("DROP INDEX IF EXISTS messages_time;");
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
@@ -103,8 +174,7 @@ public class SQLiteGateway implements Gateway {
                 + " hasStage boolean NOT NULL"
                 + ");";
 
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
         } catch (SQLException e) {
             System.out.println("Cannot create room table");
@@ -128,8 +198,7 @@ public class SQLiteGateway implements Gateway {
                 + " capacity int NOT NULL\n"
                 + ");";
 
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
@@ -146,22 +215,141 @@ public class SQLiteGateway implements Gateway {
                 + " messageId string NOT NULL\n"
                 + ");";
 
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            stmt.execute("CREATE INDEX IF NOT EXISTS inboxes_user ON inboxes(user);");
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
 
 
+    /**
+     * Creates the tables holding the attendees and speakers of each Event and the Messages of each Inbox,
+     * one row per member, replacing the joined speakersId, attendeesId and messageId columns.
+     */
+    private void createMembershipTables() {
+        String[] sqls = {
+                "CREATE TABLE IF NOT EXISTS event_attendees(\n"
+                        + " eventId string NOT NULL,\n"
+                        + " userId string NOT NULL,\n"
+                        + " PRIMARY KEY (eventId, userId)\n"
+                        + ");",
+                "CREATE INDEX IF NOT EXISTS event_attendees_user ON event_attendees(userId);",
+                "CREATE TABLE IF NOT EXISTS event_speakers(\n"
+                        + " eventId string NOT NULL,\n"
+                        + " speakerId string NOT NULL,\n"
+                        + " PRIMARY KEY (eventId, speakerId)\n"
+                        + ");",
+                "CREATE INDEX IF NOT EXISTS event_speakers_speaker ON event_speakers(speakerId);",
+                "CREATE TABLE IF NOT EXISTS inbox_messages(\n"
+                        + " inboxId string NOT NULL,\n"
+                        + " position int NOT NULL,\n"
+                        + " messageId string NOT NULL,\n"
+                        + " PRIMARY KEY (inboxId, position)\n"
+                        + ");"
+        };
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : sqls) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            System.out.println("Cannot create membership tables");
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the members stored as "|"-joined strings by older versions of the app into the membership tables.
+     * The version of the schema is kept in the user_version pragma, so this only runs once per database.
+     */
+    private void migrate() {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            if (rs.next() && rs.getInt(1) >= SCHEMA_VERSION) {
+                return;
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        try {
+            this.migrateMembers();
+        } catch (GatewayException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the "|"-joined members into the membership tables and records the new schema version
+     */
+    private void migrateMembers() {
+        this.inTransaction(() -> {
+            List<String[]> attendees = new ArrayList<>();
+            List<String[]> speakers = new ArrayList<>();
+            List<String[]> messages = new ArrayList<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, speakersId, attendeesId FROM events")) {
+                while (rs.next()) {
+                    this.splitLegacyColumn(rs.getString("id"), rs.getString("attendeesId"), attendees);
+                    this.splitLegacyColumn(rs.getString("id"), rs.getString("speakersId"), speakers);
+                }
+            }
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, messageId FROM inboxes")) {
+                while (rs.next()) {
+                    this.splitLegacyColumn(rs.getString("id"), rs.getString("messageId"), messages);
+                }
+            }
+            this.executeBatched("INSERT OR IGNORE INTO event_attendees(eventId, userId) VALUES(?,?)", attendees,
+                    (pstmt, row) -> {
+                        pstmt.setString(1, row[0]);
+                        pstmt.setString(2, row[1]);
+                    });
+            this.executeBatched("INSERT OR IGNORE INTO event_speakers(eventId, speakerId) VALUES(?,?)", speakers,
+                    (pstmt, row) -> {
+                        pstmt.setString(1, row[0]);
+                        pstmt.setString(2, row[1]);
+                    });
+            this.executeBatched("INSERT OR REPLACE INTO inbox_messages(inboxId, position, messageId) VALUES(?,?,?)",
+                    messages, (pstmt, row) -> {
+                        pstmt.setString(1, row[0]);
+                        pstmt.setInt(2, Integer.parseInt(row[2]));
+                        pstmt.setString(3, row[1]);
+                    });
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("UPDATE events SET speakersId = '', attendeesId = '';");
+                stmt.execute("UPDATE inboxes SET messageId = '';");
+                stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION + ";");
+            }
+        });
+    }
+
+    /**
+     * Splits a "|"-joined column of an older database into (owner id, member id, position) rows
+     *
+     * @param ownerId id of the Event or Inbox
+     * @param joined  the column value, may be null
+     * @param rows    list the rows are added to
+     */
+    private void splitLegacyColumn(String ownerId, String joined, List<String[]> rows) {
+        if (joined == null) {
+            return;
+        }
+        int position = 0;
+        for (String memberId : joined.split("[\\|]")) {
+            if (!memberId.isEmpty()) {
+                rows.add(new String[]{ownerId, memberId, String.valueOf(position++)});
+            }
+        }
+    }
+
     /**
      * See interface definition
      *
      * @param users User objects to save
      */
-    public void saveUsers(List<User> users) {
-        Converter converter = new UserConverter();
+    public synchronized void saveUsers(List<User> users) {
+        UserConverter converter = new UserConverter();
         List<UserBean> userBeans = converter.convertToBeans(users);
         saveUserBeans(userBeans);
 
@@ -172,34 +360,57 @@ public class SQLiteGateway implements Gateway {
      *
      * @return a list of User objects
      */
-    public List<User> loadUsers() {
-        Converter converter = new UserConverter();
+    public synchronized List<User> loadUsers() {
+        UserConverter converter = new UserConverter();
         List<UserBean> userBeans = this.loadUserBeans();
         List<User> users = converter.convertFromBeans(userBeans);
         return users;
     }
 
+    /**
+     * See interface definition
+     *
+     * @param users added or changed User entities
+     * @param removedIds IDs of the removed User entities
+     */
+    public synchronized void saveUserChanges(List<User> users, List<String> removedIds) {
+        UserConverter converter = new UserConverter();
+        List<UserBean> userBeans = converter.convertToBeans(users);
+        List<String> ids = new ArrayList<>(removedIds);
+        for (UserBean userBean : userBeans) {
+            ids.add(userBean.getId());
+        }
+        this.inTransaction(() -> {
+            this.deleteValuesFromTable("users", ids);
+            this.insertUserBeans(userBeans);
+        });
+    }
+
     /**
      * Saves serialized User to table
      *
      * @param userBeans serialized User
      */
     private void saveUserBeans(List<UserBean> userBeans) {
-        this.deleteAllValuesFromTable("users");
+        this.inTransaction(() -> {
+            this.deleteAllValuesFromTable("users");
+            this.insertUserBeans(userBeans);
+        });
+    }
+
+    /**
+     * Inserts serialized User entities into the DB
+     *
+     * @param userBeans list of serialized User entities
+     */
+    private void insertUserBeans(List<UserBean> userBeans) throws SQLException {
         String sql = "INSERT INTO users(id, username, password, role) VALUES(?,?,?,?)";
-        for (UserBean userBean : userBeans) {
-            try {
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, userBean.getId());
-                pstmt.setString(2, userBean.getUsername());
-                pstmt.setString(3, userBean.getPassword());
-                pstmt.setString(4, userBean.getRole());
-                pstmt.executeUpdate();
-
-            } catch (SQLException e) {
-                System.out.println(e.getMessage());
-            }
-        }
+        this.executeBatched(sql, userBeans, (pstmt, userBean) -> {
+            pstmt.setString(1, userBean.getId());
+            pstmt.setString(2, userBean.getUsername());
+            pstmt.setString(3, userBean.getPassword());
+            pstmt.setString(4, userBean.getRole());
+        });
     }
 
     /**
@@ -211,9 +422,7 @@ public class SQLiteGateway implements Gateway {
 
         List<UserBean> userBeans = new ArrayList<>();
         String sql = "SELECT id, username, password, role FROM users";
-        try {
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = this.query(sql)) {
 
             while (rs.next()) {
                 UserBean userBean = new UserBean();
@@ -238,8 +447,8 @@ public class SQLiteGateway implements Gateway {
      *
      * @param rooms List of Rooms to save
      */
-    public void saveRooms(List<Room> rooms) {
-        Converter converter = new RoomConverter();
+    public synchronized void saveRooms(List<Room> rooms) {
+        RoomConverter converter = new RoomConverter();
         List<RoomBean> roomBeans = converter.convertToBeans(rooms);
         saveRoomBeans(roomBeans);
     }
@@ -249,36 +458,59 @@ public class SQLiteGateway implements Gateway {
      *
      * @return a list of Room entities
      */
-    public List<Room> loadRooms() {
-        Converter converter = new RoomConverter();
+    public synchronized List<Room> loadRooms() {
+        RoomConverter converter = new RoomConverter();
         List<RoomBean> roomBeans = loadRoomBeans();
         List<Room> rooms = converter.convertFromBeans(roomBeans);
         return rooms;
     }
 
+    /**
+     * See interface definition
+     *
+     * @param rooms added or changed Room entities
+     * @param removedIds IDs of the removed Room entities
+     */
+    public synchronized void saveRoomChanges(List<Room> rooms, List<String> removedIds) {
+        RoomConverter converter = new RoomConverter();
+        List<RoomBean> roomBeans = converter.convertToBeans(rooms);
+        List<String> ids = new ArrayList<>(removedIds);
+        for (RoomBean roomBean : roomBeans) {
+            ids.add(roomBean.getId());
+        }
+        this.inTransaction(() -> {
+            this.deleteValuesFromTable("rooms", ids);
+            this.insertRoomBeans(roomBeans);
+        });
+    }
+
     /**
      * Saves serialized Rooms to the DB
      *
      * @param roomBeans serialized Rooms
      */
     private void saveRoomBeans(List<RoomBean> roomBeans) {
-        this.deleteAllValuesFromTable("rooms");
+        this.inTransaction(() -> {
+            this.deleteAllValuesFromTable("rooms");
+            this.insertRoomBeans(roomBeans);
+        });
+    }
+
+    /**
+     * Inserts serialized Room entities into the DB
+     *
+     * @param roomBeans list of serialized Room entities
+     */
+    private void insertRoomBeans(List<RoomBean> roomBeans) throws SQLException {
         String sql = "INSERT INTO rooms(id, roomNum, capacity, hasTech, isTable, hasStage) VALUES(?,?,?,?,?,?)";
-        for (RoomBean roomBean : roomBeans) {
-            try {
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, roomBean.getId());
-                pstmt.setInt(2, roomBean.getRoomNum());
-                pstmt.setInt(3, roomBean.getCapacity());
-                pstmt.setBoolean(4, roomBean.isHasTech());
-                pstmt.setBoolean(5, roomBean.isTable());
-                pstmt.setBoolean(6, roomBean.isHasStage());
-                pstmt.executeUpdate();
-
-            } catch (SQLException e) {
-                System.out.println(e.getMessage());
-            }
-        }
+        this.executeBatched(sql, roomBeans, (pstmt, roomBean) -> {
+            pstmt.setString(1, roomBean.getId());
+            pstmt.setInt(2, roomBean.getRoomNum());
+            pstmt.setInt(3, roomBean.getCapacity());
+            pstmt.setBoolean(4, roomBean.isHasTech());
+            pstmt.setBoolean(5, roomBean.isTable());
+            pstmt.setBoolean(6, roomBean.isHasStage());
+        });
     }
 
     /**
@@ -289,9 +521,7 @@ public class SQLiteGateway implements Gateway {
     private List<RoomBean> loadRoomBeans() {
         List<RoomBean> roomBeans = new ArrayList<>();
         String sql = "SELECT id, roomNum, capacity, hasTech, isTable, hasStage FROM rooms";
-        try {
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = this.query(sql)) {
 
             while (rs.next()) {
                 RoomBean roomBean = new RoomBean();
@@ -319,8 +549,8 @@ public class SQLiteGateway implements Gateway {
      *
      * @param messages List of Message to save
      */
-    public void saveMessages(List<Message> messages) {
-        Converter converter = new MessageConverter();
+    public synchronized void saveMessages(List<Message> messages) {
+        MessageConverter converter = new MessageConverter();
         List<MessageBean> messageBeans = converter.convertToBeans(messages);
         saveMessageBeans(messageBeans);
     }
@@ -330,34 +560,57 @@ public class SQLiteGateway implements Gateway {
      *
      * @return list of Message entities
      */
-    public List<Message> loadMessages() {
-        Converter converter = new MessageConverter();
+    public synchronized List<Message> loadMessages() {
+        MessageConverter converter = new MessageConverter();
         List<MessageBean> messageBeans = this.loadMessageBeans();
         List<Message> messages = converter.convertFromBeans(messageBeans);
         return messages;
     }
 
+    /**
+     * See interface definition
+     *
+     * @param messages added or changed Message entities
+     * @param removedIds IDs of the removed Message entities
+     */
+    public synchronized void saveMessageChanges(List<Message> messages, List<String> removedIds) {
+        MessageConverter converter = new MessageConverter();
+        List<MessageBean> messageBeans = converter.convertToBeans(messages);
+        List<String> ids = new ArrayList<>(removedIds);
+        for (MessageBean messageBean : messageBeans) {
+            ids.add(messageBean.getId());
+        }
+        this.inTransaction(() -> {
+            this.deleteValuesFromTable("messages", ids);
+            this.insertMessageBeans(messageBeans);
+        });
+    }
+
     /**
      * Saves serialized Message entities to the DB
      *
      * @param messageBeans list of serialized Message entities
      */
     private void saveMessageBeans(List<MessageBean> messageBeans) {
-        this.deleteAllValuesFromTable("messages");
+        this.inTransaction(() -> {
+            this.deleteAllValuesFromTable("messages");
+            this.insertMessageBeans(messageBeans);
+        });
+    }
+
+    /**
+     * Inserts serialized Message entities into the DB
+     *
+     * @param messageBeans list of serialized Message entities
+     */
+    private void insertMessageBeans(List<MessageBean> messageBeans) throws SQLException {
         String sql = "INSERT INTO messages(id, text, time, sender) VALUES(?,?,?,?)";
-        for (MessageBean messageBean : messageBeans) {
-            try {
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, messageBean.getId());
-                pstmt.setString(2, messageBean.getText());
-                pstmt.setString(3, messageBean.getTime());
-                pstmt.setString(4, messageBean.getSender());
-                pstmt.executeUpdate();
-
-            } catch (SQLException e) {
-                System.out.println(e.getMessage());
-            }
-        }
+        this.executeBatched(sql, messageBeans, (pstmt, messageBean) -> {
+            pstmt.setString(1, messageBean.getId());
+            pstmt.setString(2, messageBean.getText());
+            pstmt.setString(3, messageBean.getTime());
+            pstmt.setString(4, messageBean.getSender());
+        });
     }
 
     /**
@@ -366,11 +619,19 @@ public class SQLiteGateway implements Gateway {
      * @return list of serialized Message entities
      */
     private List<MessageBean> loadMessageBeans() {
+        return this.loadMessageBeans("SELECT id, text, time, sender FROM messages");
+    }
+
+    /**
+     * Loads the serialized Message entities selected by a query
+     *
+     * @param sql    query selecting id, text, time and sender
+     * @param params values of the parameters of the query
+     * @return list of serialized Message entities
+     */
+    private List<MessageBean> loadMessageBeans(String sql, String... params) {
         List<MessageBean> messageBeans = new ArrayList<>();
-        String sql = "SELECT id, text, time, sender FROM messages";
-        try {
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = this.query(sql, params)) {
 
             while (rs.next()) {
                 MessageBean messageBean = new MessageBean();
@@ -388,15 +649,58 @@ public class SQLiteGateway implements Gateway {
         return messageBeans;
     }
 
+    /**
+     * See interface definition
+     *
+     * @param messageId ID of the Message
+     * @return the Message, or null if there is none with that ID
+     */
+    public synchronized Message findMessage(String messageId) {
+        List<Message> messages = this.findMessages(Collections.singletonList(messageId));
+        return messages.isEmpty() ? null : messages.get(0);
+    }
+
+    /**
+     * See interface definition
+     *
+     * @param messageIds IDs of the Messages
+     * @return the Messages found
+     */
+    public synchronized List<Message> findMessages(Collection<String> messageIds) {
+        MessageConverter converter = new MessageConverter();
+        List<MessageBean> messageBeans = new ArrayList<>();
+        List<String> ids = new ArrayList<>(messageIds);
+        // SQLite allows at most 999 parameters in one statement
+        for (int from = 0; from < ids.size(); from += 999) {
+            List<String> chunk = ids.subList(from, Math.min(from + 999, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT id, text, time, sender FROM messages WHERE id IN (" + placeholders + ")";
+            messageBeans.addAll(this.loadMessageBeans(sql, chunk.toArray(new String[0])));
+        }
+        return converter.convertFromBeans(messageBeans);
+    }
+
     /**
      * Saves Event entities to the DB
      *
      * @param events List of Events to save
      */
-    public void saveEvents(List<Event> events) {
-        Converter converter = new EventConverter();
+    public synchronized void saveEvents(List<Event> events) {
+        EventConverter converter = new EventConverter();
+        List<Event.MemberChanges> taken = this.takeMemberChanges(events);
         List<EventBean> eventBeans = converter.convertToBeans(events);
-        saveEventBeans(eventBeans);
+        try {
+            this.inTransaction(() -> {
+                this.deleteAllValuesFromTable("events");
+                this.deleteAllValuesFromTable("event_attendees");
+                this.deleteAllValuesFromTable("event_speakers");
+                this.insertEventBeans(eventBeans);
+                this.insertEventMembers(events);
+            });
+        } catch (GatewayException e) {
+            this.restoreMemberChanges(events, taken);
+            throw e;
+        }
     }
 
     /**
@@ -404,42 +708,173 @@ public class SQLiteGateway implements Gateway {
      *
      * @return a list of Event entities
      */
-    public List<Event> loadEvents() {
-        Converter converter = new EventConverter();
+    public synchronized List<Event> loadEvents() {
+        EventConverter converter = new EventConverter();
         List<EventBean> eventBeans = loadEventBeans();
         List<Event> events = converter.convertFromBeans(eventBeans);
+        Map<String, Event> eventsById = new HashMap<>();
+        for (Event event : events) {
+            eventsById.put(event.getId(), event);
+        }
+        String sql = "SELECT eventId, userId FROM event_attendees ORDER BY rowid";
+        for (String[] row : this.loadPairs(sql)) {
+            Event event = eventsById.get(row[0]);
+            if (event != null) {
+                event.addAttendees(row[1]);
+            }
+        }
+        sql = "SELECT eventId, speakerId FROM event_speakers ORDER BY rowid";
+        for (String[] row : this.loadPairs(sql)) {
+            Event event = eventsById.get(row[0]);
+            if (event != null) {
+                event.addSpeaker(row[1]);
+            }
+        }
         return events;
     }
 
     /**
-     * Saves serialized Event entities to the DB
+     * See interface definition. Only the attendees and speakers added or removed since the last save are written,
+     * one row each.
      *
-     * @param eventBeans list of serialized Event entities
+     * @param events added or changed Event entities
+     * @param removedIds IDs of the removed Event entities
      */
-    private void saveEventBeans(List<EventBean> eventBeans) {
-        this.deleteAllValuesFromTable("events");
-        String sql = "INSERT INTO events(id, title, time, roomId, speakersId, attendeesId, type, duration, capacity) VALUES(?,?,?,?,?,?,?,?,?)";
+    public synchronized void saveEventChanges(List<Event> events, List<String> removedIds) {
+        EventConverter converter = new EventConverter();
+        List<Event.MemberChanges> taken = this.takeMemberChanges(events);
+        List<EventBean> eventBeans = converter.convertToBeans(events);
+        List<String> ids = new ArrayList<>(removedIds);
         for (EventBean eventBean : eventBeans) {
-            try {
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, eventBean.getId());
-                pstmt.setString(2, eventBean.getTitle());
-                pstmt.setString(3, eventBean.getTime());
-                pstmt.setString(4, eventBean.getRoomID());
-                pstmt.setString(5, eventBean.getSpeakersID());
-                pstmt.setString(6, eventBean.getAttendeesId());
-                pstmt.setString(7, eventBean.getType());
-                pstmt.setInt(8, eventBean.getDuration());
-                pstmt.setInt(9, eventBean.getCapacity());
-                pstmt.executeUpdate();
-            } catch (SQLException e) {
-                System.out.println(e.getMessage());
-            }
+            ids.add(eventBean.getId());
+        }
+        try {
+            this.inTransaction(() -> {
+                this.deleteValuesFromTable("events", ids);
+                this.deleteValuesFromTable("event_attendees", "eventId", removedIds);
+                this.deleteValuesFromTable("event_speakers", "eventId", removedIds);
+                this.insertEventBeans(eventBeans);
+                this.saveMemberChanges(events, taken);
+            });
+        } catch (GatewayException e) {
+            this.restoreMemberChanges(events, taken);
+            throw e;
+        }
+    }
 
+    /**
+     * Takes the member changes of Event entities about to be saved
+     *
+     * @param events list of Event entities
+     * @return the member changes of each Event, in the same order
+     */
+    private List<Event.MemberChanges> takeMemberChanges(List<Event> events) {
+        List<Event.MemberChanges> taken = new ArrayList<>();
+        for (Event event : events) {
+            taken.add(event.takeMemberChanges());
+        }
+        return taken;
+    }
 
+    /**
+     * Puts back the member changes of Event entities whose save failed
+     *
+     * @param events list of Event entities
+     * @param taken  the member changes of each Event, as returned by takeMemberChanges
+     */
+    private void restoreMemberChanges(List<Event> events, List<Event.MemberChanges> taken) {
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).restoreMemberChanges(taken.get(i));
         }
     }
 
+    /**
+     * Deletes the removed and inserts the added attendees and speakers of Event entities, one row per member
+     *
+     * @param events list of Event entities
+     * @param taken  the member changes of each Event
+     */
+    private void saveMemberChanges(List<Event> events, List<Event.MemberChanges> taken) throws SQLException {
+        List<String[]> removedAttendees = new ArrayList<>();
+        List<String[]> addedAttendees = new ArrayList<>();
+        List<String[]> removedSpeakers = new ArrayList<>();
+        List<String[]> addedSpeakers = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            String eventId = events.get(i).getId();
+            Event.MemberChanges changes = taken.get(i);
+            for (String userId : changes.getRemovedAttendees()) {
+                removedAttendees.add(new String[]{eventId, userId});
+            }
+            for (String userId : changes.getAddedAttendees()) {
+                addedAttendees.add(new String[]{eventId, userId});
+            }
+            for (String speakerId : changes.getRemovedSpeakers()) {
+                removedSpeakers.add(new String[]{eventId, speakerId});
+            }
+            for (String speakerId : changes.getAddedSpeakers()) {
+                addedSpeakers.add(new String[]{eventId, speakerId});
+            }
+        }
+        Binder<String[]> setPair = (pstmt, row) -> {
+            pstmt.setString(1, row[0]);
+            pstmt.setString(2, row[1]);
+        };
+        this.executeBatched("DELETE FROM event_attendees WHERE eventId = ? AND userId = ?", removedAttendees, setPair);
+        this.executeBatched("INSERT OR IGNORE INTO event_attendees(eventId, userId) VALUES(?,?)", addedAttendees,
+                setPair);
+        this.executeBatched("DELETE FROM event_speakers WHERE eventId = ? AND speakerId = ?", removedSpeakers,
+                setPair);
+        this.executeBatched("INSERT OR IGNORE INTO event_speakers(eventId, speakerId) VALUES(?,?)", addedSpeakers,
+                setPair);
+    }
+
+    /**
+     * Inserts the attendees and speakers of Event entities into the DB
+     *
+     * @param events list of Event entities
+     */
+    private void insertEventMembers(List<Event> events) throws SQLException {
+        List<String[]> attendees = new ArrayList<>();
+        List<String[]> speakers = new ArrayList<>();
+        for (Event event : events) {
+            for (String userId : event.getAttendeeSet()) {
+                attendees.add(new String[]{event.getId(), userId});
+            }
+            for (String speakerId : event.getSpeakerSet()) {
+                speakers.add(new String[]{event.getId(), speakerId});
+            }
+        }
+        this.executeBatched("INSERT INTO event_attendees(eventId, userId) VALUES(?,?)", attendees, (pstmt, row) -> {
+            pstmt.setString(1, row[0]);
+            pstmt.setString(2, row[1]);
+        });
+        this.executeBatched("INSERT INTO event_speakers(eventId, speakerId) VALUES(?,?)", speakers, (pstmt, row) -> {
+            pstmt.setString(1, row[0]);
+            pstmt.setString(2, row[1]);
+        });
+    }
+
+    /**
+     * Inserts serialized Event entities into the DB
+     *
+     * @param eventBeans list of serialized Event entities
+     */
+    private void insertEventBeans(List<EventBean> eventBeans) throws SQLException {
+        String sql = "INSERT INTO events(id, title, time, roomId, speakersId, attendeesId, type, duration, capacity) VALUES(?,?,?,?,?,?,?,?,?)";
+        this.executeBatched(sql, eventBeans, (pstmt, eventBean) -> {
+            pstmt.setString(1, eventBean.getId());
+            pstmt.setString(2, eventBean.getTitle());
+            pstmt.setString(3, eventBean.getTime());
+            pstmt.setString(4, eventBean.getRoomID());
+            // speakers and attendees are stored in event_speakers and event_attendees
+            pstmt.setString(5, "");
+            pstmt.setString(6, "");
+            pstmt.setString(7, eventBean.getType());
+            pstmt.setInt(8, eventBean.getDuration());
+            pstmt.setInt(9, eventBean.getCapacity());
+        });
+    }
+
     /**
      * Loads serialized Event entities from the DB
      *
@@ -448,9 +883,7 @@ public class SQLiteGateway implements Gateway {
     private List<EventBean> loadEventBeans() {
         List<EventBean> eventBeans = new ArrayList<>();
         String sql = "SELECT id, title, time, roomId, speakersId, attendeesId, type, duration, capacity FROM events";
-        try {
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = this.query(sql)) {
 
             while (rs.next()) {
                 EventBean eventBean = new EventBean();
@@ -478,11 +911,15 @@ public class SQLiteGateway implements Gateway {
      *
      * @param inboxes List of Inbox to save
      */
-    public void saveInboxes(List<Inbox> inboxes) {
-        Converter converter = new InboxConverter();
+    public synchronized void saveInboxes(List<Inbox> inboxes) {
+        InboxConverter converter = new InboxConverter();
         List<InboxBean> inboxBeans = converter.convertToBeans(inboxes);
-        saveInboxBeans(inboxBeans);
-
+        this.inTransaction(() -> {
+            this.deleteAllValuesFromTable("inboxes");
+            this.deleteAllValuesFromTable("inbox_messages");
+            this.insertInboxBeans(inboxBeans);
+            this.insertInboxMessages(inboxes, Collections.emptyMap());
+        });
     }
 
     /**
@@ -490,37 +927,160 @@ public class SQLiteGateway implements Gateway {
      *
      * @return list of Inbox entities
      */
-    public List<Inbox> loadInboxes() {
-        Converter converter = new InboxConverter();
-        List<InboxBean> inboxBeans = this.loadInboxBeans();
-        List<Inbox> inboxes = converter.convertFromBeans(inboxBeans);
-        return inboxes;
+    public synchronized List<Inbox> loadInboxes() {
+        return this.loadInboxes(this.loadInboxBeans(), "SELECT inboxId, messageId FROM inbox_messages ORDER BY inboxId, position");
     }
 
     /**
-     * Saves list of serialized Inbox entities to the DB
+     * See interface definition
      *
-     * @param inboxBeans list of serialized Inbox entities
+     * @param userId ID of the User
+     * @return the Inboxes of the User
      */
-    private void saveInboxBeans(List<InboxBean> inboxBeans) {
-        this.deleteAllValuesFromTable("inboxes");
-        String sql = "INSERT INTO inboxes(id, user, messageId) VALUES(?,?,?)";
-        for (InboxBean inboxBean : inboxBeans) {
-            try {
+    public synchronized List<Inbox> findInboxesOfUser(String userId) {
+        return this.findInboxesOfUsers(Collections.singletonList(userId));
+    }
 
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, inboxBean.getId());
-                pstmt.setString(2, inboxBean.getUser());
-                pstmt.setString(3, inboxBean.getMessageID());
-                pstmt.executeUpdate();
+    /**
+     * See interface definition
+     *
+     * @param userIds IDs of the Users
+     * @return the Inboxes of the Users
+     */
+    public synchronized List<Inbox> findInboxesOfUsers(Collection<String> userIds) {
+        List<Inbox> inboxes = new ArrayList<>();
+        List<String> ids = new ArrayList<>(userIds);
+        // SQLite allows at most 999 parameters in one statement
+        for (int from = 0; from < ids.size(); from += 999) {
+            List<String> chunk = ids.subList(from, Math.min(from + 999, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT id, user, messageId FROM inboxes WHERE user IN (" + placeholders + ")";
+            String messageSql = "SELECT m.inboxId, m.messageId FROM inbox_messages m JOIN inboxes i "
+                    + "ON m.inboxId = i.id WHERE i.user IN (" + placeholders + ") ORDER BY m.inboxId, m.position";
+            String[] params = chunk.toArray(new String[0]);
+            inboxes.addAll(this.loadInboxes(this.loadInboxBeans(sql, params), messageSql, params));
+        }
+        return inboxes;
+    }
 
+    /**
+     * Converts serialized Inbox entities and fills in their Messages
+     *
+     * @param inboxBeans serialized Inbox entities
+     * @param messageSql query selecting (inboxId, messageId) of the Inboxes in order
+     * @param params     values of the parameters of the query
+     * @return list of Inbox entities
+     */
+    private List<Inbox> loadInboxes(List<InboxBean> inboxBeans, String messageSql, String... params) {
+        InboxConverter converter = new InboxConverter();
+        List<Inbox> inboxes = converter.convertFromBeans(inboxBeans);
+        Map<String, Inbox> inboxesById = new HashMap<>();
+        for (Inbox inbox : inboxes) {
+            inboxesById.put(inbox.getId(), inbox);
+        }
+        for (String[] row : this.loadPairs(messageSql, params)) {
+            Inbox inbox = inboxesById.get(row[0]);
+            if (inbox != null) {
+                inbox.addMessage(row[1]);
+            }
+        }
+        return inboxes;
+    }
 
-            } catch (SQLException e) {
-                System.out.println(e.getMessage());
+    /**
+     * See interface definition
+     *
+     * @param inboxes added or changed Inbox entities
+     * @param removedIds IDs of the removed Inbox entities
+     */
+    public synchronized void saveInboxChanges(List<Inbox> inboxes, List<String> removedIds) {
+        InboxConverter converter = new InboxConverter();
+        List<InboxBean> inboxBeans = converter.convertToBeans(inboxes);
+        List<String> ids = new ArrayList<>();
+        for (InboxBean inboxBean : inboxBeans) {
+            ids.add(inboxBean.getId());
+        }
+        this.inTransaction(() -> {
+            this.deleteValuesFromTable("inboxes", removedIds);
+            this.deleteValuesFromTable("inbox_messages", "inboxId", removedIds);
+            Map<String, Integer> storedCounts = this.countStoredInboxMessages(ids);
+            List<InboxBean> added = new ArrayList<>();
+            List<InboxBean> stored = new ArrayList<>();
+            for (InboxBean inboxBean : inboxBeans) {
+                if (storedCounts.containsKey(inboxBean.getId())) {
+                    stored.add(inboxBean);
+                } else {
+                    added.add(inboxBean);
+                }
             }
+            this.insertInboxBeans(added);
+            this.executeBatched("UPDATE inboxes SET user = ? WHERE id = ?", stored, (pstmt, inboxBean) -> {
+                pstmt.setString(1, inboxBean.getUser());
+                pstmt.setString(2, inboxBean.getId());
+            });
+            this.insertInboxMessages(inboxes, storedCounts);
+        });
+    }
 
+    /**
+     * Counts the Messages stored for each of the given Inboxes that is stored
+     *
+     * @param inboxIds IDs of the Inboxes
+     * @return the number of stored Messages by the ID of each stored Inbox
+     */
+    private Map<String, Integer> countStoredInboxMessages(List<String> inboxIds) throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        // SQLite allows at most 999 parameters in one statement
+        for (int from = 0; from < inboxIds.size(); from += 999) {
+            List<String> chunk = inboxIds.subList(from, Math.min(from + 999, inboxIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT i.id, (SELECT COUNT(*) FROM inbox_messages m WHERE m.inboxId = i.id) FROM inboxes i "
+                    + "WHERE i.id IN (" + placeholders + ")";
+            try (ResultSet rs = this.query(sql, chunk.toArray(new String[0]))) {
+                while (rs.next()) {
+                    counts.put(rs.getString(1), rs.getInt(2));
+                }
+            }
+        }
+        return counts;
+    }
 
+    /**
+     * Inserts the Messages of Inbox entities into the DB
+     *
+     * @param inboxes      list of Inbox entities
+     * @param storedCounts number of Messages already stored for each Inbox, by its ID
+     */
+    private void insertInboxMessages(List<Inbox> inboxes, Map<String, Integer> storedCounts) throws SQLException {
+        List<String[]> messages = new ArrayList<>();
+        for (Inbox inbox : inboxes) {
+            List<String> messageIds = inbox.getMessages();
+            // Messages are only ever appended, so only the ones after the stored ones are new
+            for (int i = storedCounts.getOrDefault(inbox.getId(), 0); i < messageIds.size(); i++) {
+                messages.add(new String[]{inbox.getId(), messageIds.get(i), String.valueOf(i)});
+            }
         }
+        String sql = "INSERT INTO inbox_messages(inboxId, position, messageId) VALUES(?,?,?)";
+        this.executeBatched(sql, messages, (pstmt, row) -> {
+            pstmt.setString(1, row[0]);
+            pstmt.setInt(2, Integer.parseInt(row[2]));
+            pstmt.setString(3, row[1]);
+        });
+    }
+
+    /**
+     * Inserts serialized Inbox entities into the DB
+     *
+     * @param inboxBeans list of serialized Inbox entities
+     */
+    private void insertInboxBeans(List<InboxBean> inboxBeans) throws SQLException {
+        String sql = "INSERT INTO inboxes(id, user, messageId) VALUES(?,?,?)";
+        this.executeBatched(sql, inboxBeans, (pstmt, inboxBean) -> {
+            pstmt.setString(1, inboxBean.getId());
+            pstmt.setString(2, inboxBean.getUser());
+            // messages are stored in inbox_messages
+            pstmt.setString(3, "");
+        });
     }
 
     /**
@@ -529,11 +1089,19 @@ public class SQLiteGateway implements Gateway {
      * @return list of serialized Inbox entities
      */
     private List<InboxBean> loadInboxBeans() {
+        return this.loadInboxBeans("SELECT id, user, messageId FROM inboxes");
+    }
+
+    /**
+     * Load the serialized Inbox entities selected by a query
+     *
+     * @param sql    query selecting id, user and messageId
+     * @param params values of the parameters of the query
+     * @return list of serialized Inbox entities
+     */
+    private List<InboxBean> loadInboxBeans(String sql, String... params) {
         List<InboxBean> inboxBeans = new ArrayList<>();
-        String sql = "SELECT id, user, messageId FROM inboxes";
-        try {
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = this.query(sql, params)) {
 
             while (rs.next()) {
                 InboxBean inboxBean = new InboxBean();
@@ -549,20 +1117,138 @@ public class SQLiteGateway implements Gateway {
         return inboxBeans;
     }
 
+    /**
+     * Deletes the rows with the given IDs from a specific table
+     *
+     * @param table name of table
+     * @param ids   IDs of the rows to delete
+     */
+    private void deleteValuesFromTable(String table, List<String> ids) throws SQLException {
+        this.deleteValuesFromTable(table, "id", ids);
+    }
+
+    /**
+     * Deletes the rows whose given column matches one of the given IDs from a specific table
+     *
+     * @param table  name of table
+     * @param column name of the column holding the IDs
+     * @param ids    IDs of the rows to delete
+     */
+    private void deleteValuesFromTable(String table, String column, List<String> ids) throws SQLException {
+        String sql = "DELETE FROM " + table + " WHERE " + column + " = ?";
+        this.executeBatched(sql, ids, (pstmt, id) -> pstmt.setString(1, id));
+    }
+
+    /**
+     * Runs a query selecting two string columns
+     *
+     * @param sql    query selecting (owner id, member id)
+     * @param params values of the parameters of the query
+     * @return the selected rows
+     */
+    private List<String[]> loadPairs(String sql, String... params) {
+        List<String[]> rows = new ArrayList<>();
+        try (ResultSet rs = this.query(sql, params)) {
+            while (rs.next()) {
+                rows.add(new String[]{rs.getString(1), rs.getString(2)});
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        return rows;
+    }
+
     /**
      * Clears all values in a specific table
      *
      * @param table name of table to be cleared
      */
-    private void deleteAllValuesFromTable(String table) {
+    private void deleteAllValuesFromTable(String table) throws SQLException {
         String sql = "DELETE FROM " + table + ";";
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Runs a group of writes in a single transaction, so SQLite syncs to disk once instead of once per row.
+     * If any write fails, none of them are kept.
+     *
+     * @param writes to run
+     * @throws GatewayException if a write fails, after rolling the transaction back
+     */
+    private void inTransaction(Writes writes) {
+        try {
+            connection.begin();
+            writes.run();
+            connection.commit();
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                System.out.println(rollbackError.getMessage());
+            }
+            throw new GatewayException("Could not save to " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes one prepared statement for every value, sending them to the DB in batches of batchSize
+     *
+     * @param sql    statement with parameters
+     * @param values to bind to the statement one at a time
+     * @param binder sets the parameters of the statement for one value
+     */
+    private <T> void executeBatched(String sql, List<T> values, Binder<T> binder) throws SQLException {
+        PreparedStatement pstmt = connection.prepare(sql);
+        try {
+            int pending = 0;
+            for (T value : values) {
+                binder.bind(pstmt, value);
+                pstmt.addBatch();
+                pending++;
+                if (pending == batchSize) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            // the statement is cached, so it must not keep the rows of a failed batch
+            pstmt.clearBatch();
+            throw e;
         }
+    }
 
+    /**
+     * Runs a query through a cached prepared statement
+     *
+     * @param sql    query with parameters
+     * @param params values of the parameters of the query
+     * @return the result of the query, to be closed by the caller
+     */
+    private ResultSet query(String sql, String... params) throws SQLException {
+        PreparedStatement pstmt = connection.prepare(sql);
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setString(i + 1, params[i]);
+        }
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * A group of writes run by inTransaction
+     */
+    private interface Writes {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Sets the parameters of a prepared statement for one value
+     */
+    private interface Binder<T> {
+        void bind(PreparedStatement pstmt, T value) throws SQLException;
     }
 
 
@@ -6,7 +6,6 @@ import main.guilisteners.RegisterEventButtonListener;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 /**
  * UI class for displaying events
@@ -20,14 +19,14 @@ public class DisplayAllEventsUI extends JFrame implements IDisplayAllEventsUI {
 
     private JPanel jPanel;
     private JButton registerEventButton;
-    private JList<Object> listOfEvents;
+    private JList<String> listOfEvents;
     private JScrollPane jScrollPane;
     private JButton backButton;
     private BackButtonListener backButtonListener;
     private RegisterEventButtonListener registerEventButtonListener;
     private EventSignUpUI eventSignUpUI;
 
-    public DisplayAllEventsUI(ArrayList<String> listOfEventsInfo) {
+    public DisplayAllEventsUI(ListModel<String> listOfEventsInfo) {
         this.jPanel = new JPanel();
 
         this.setTitle("Available Events");
@@ -36,7 +35,8 @@ public class DisplayAllEventsUI extends JFrame implements IDisplayAllEventsUI {
         this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         this.setLocationRelativeTo(null);
 
-        listOfEvents = new JList<>(listOfEventsInfo.toArray());
+        listOfEvents = new JList<>(listOfEventsInfo);
+        EventRows.setFixedCellSize(listOfEvents);
         listOfEvents.setVisibleRowCount(20);
         jScrollPane = new JScrollPane(listOfEvents, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
                 JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -0,0 +1,34 @@
+package main.gui;
+
+import javax.swing.*;
+
+/**
+ * Sizes the cells of the lists of events. With a fixed cell size a list does not have to describe every event to
+ * lay itself out, only the rows scrolled into view.
+ */
+final class EventRows {
+
+    /**
+     * A row as long as the longest expected. Longer rows are cut off.
+     */
+    private static final String PROTOTYPE = "Title: A panel discussion with a title about as long as titles get\n"
+            + "Time: 2020-12-01T10:00\n"
+            + "Speaker: [first.speaker@university.example.com, second.speaker@university.example.com, "
+            + "third.speaker@university.example.com]\n"
+            + "Room: Room #1000\n"
+            + "Duration: 1000 mins \n"
+            + "Capacity: 10000 people \n"
+            + "Type: MultiSpeakerEvent\n";
+
+    private EventRows() {
+    }
+
+    /**
+     * Gives every cell of a list of events the size of the longest expected row
+     *
+     * @param list of event descriptions
+     */
+    static void setFixedCellSize(JList<String> list) {
+        list.setPrototypeCellValue(PROTOTYPE);
+    }
+}
@@ -6,7 +6,6 @@ import main.guilisteners.SignUpButtonListener;
 import main.guilisteners.ViewEventsButtonListener;
 
 import javax.swing.*;
-import java.util.ArrayList;
 
 /**
  * UI class for event registration
@@ -86,14 +85,14 @@ public class EventSignUpUI extends JFrame implements IEventSignUpUI {
     }
 
     @Override
-    public DisplayAllEventsUI goToDisplayAllEventsUI(ArrayList<String> listOfEvents) {
+    public DisplayAllEventsUI goToDisplayAllEventsUI(ListModel<String> listOfEvents) {
         displayAllEventsUI = new DisplayAllEventsUI(listOfEvents);
         this.dispose();
         return displayAllEventsUI;
     }
 
     @Override
-    public ViewUserEventsUI goToViewUserEventsUI(ArrayList<String> listOfUserEvents) {
+    public ViewUserEventsUI goToViewUserEventsUI(ListModel<String> listOfUserEvents) {
         viewUserEventsUI = new ViewUserEventsUI(listOfUserEvents);
         this.dispose();
         return viewUserEventsUI;
@@ -153,7 +153,7 @@ public class EventsManagementUI extends JFrame implements IEventsManagementUI {
         return seeRoomsUI;
     }
 
-    public SeeScheduleUI goToSeeScheduleUI(ArrayList<String> listOfEventInfo) {
+    public SeeScheduleUI goToSeeScheduleUI(ListModel<String> listOfEventInfo) {
         seeScheduleUI = new SeeScheduleUI(listOfEventInfo);
         this.dispose();
         return seeScheduleUI;
@@ -126,7 +126,12 @@ public class OrganizerMessageUI extends JFrame implements IOrganizerMessageUI  {
         return this.userList;
     }
 
+    public void sendMessageProgress(int delivered, int total) {
+        this.setTitle("Program X - Sent to " + delivered + " of " + total);
+    }
+
     public void sendMessageSuccessful() {
+        this.setTitle("Program X");
         JOptionPane.showMessageDialog(this,
                 "Message sent!",
                 "Success", JOptionPane.INFORMATION_MESSAGE);
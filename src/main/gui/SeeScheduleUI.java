@@ -5,7 +5,6 @@ import main.guilisteners.BackButtonListener;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 /**
  * UI class for viewing available events
@@ -16,13 +15,13 @@ import java.util.ArrayList;
 public class SeeScheduleUI extends JFrame implements ISeeScheduleUI {
 
     private JPanel jPanel;
-    private JList<Object> listOfEvents;
+    private JList<String> listOfEvents;
     private JScrollPane jScrollPane;
     private JButton backButton;
     private BackButtonListener backButtonListener;
     private EventsManagementUI eventsManagementUI;
 
-    public SeeScheduleUI(ArrayList<String> listOfEventsInfo) {
+    public SeeScheduleUI(ListModel<String> listOfEventsInfo) {
         this.jPanel = new JPanel();
 
         this.setTitle("Available Events");
@@ -31,7 +30,8 @@ public class SeeScheduleUI extends JFrame implements ISeeScheduleUI {
         this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         this.setLocationRelativeTo(null);
 
-        listOfEvents = new JList<>(listOfEventsInfo.toArray());
+        listOfEvents = new JList<>(listOfEventsInfo);
+        EventRows.setFixedCellSize(listOfEvents);
         listOfEvents.setVisibleRowCount(20);
         jScrollPane = new JScrollPane(listOfEvents, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
                 JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -114,7 +114,12 @@ public class SpeakerMessageUI extends JFrame implements ISpeakerMessageUI {
         return this.eventList;
     }
 
+    public void sendMessageProgress(int delivered, int total) {
+        this.setTitle("Program X - Sent to " + delivered + " of " + total);
+    }
+
     public void sendMessageSuccessful() {
+        this.setTitle("Program X");
         JOptionPane.showMessageDialog(this,
                 "Message sent!",
                 "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -6,7 +6,6 @@ import main.guilisteners.CancelEventButtonListener;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 /**
  * UI class for viewing events of a particular user
@@ -21,14 +20,14 @@ public class ViewUserEventsUI extends JFrame implements IViewUserEventsUI {
 
     private JPanel jPanel;
     private JButton cancelEventButton;
-    private JList<Object> listOfEvents;
+    private JList<String> listOfEvents;
     private JScrollPane jScrollPane;
     private JButton backButton;
     private BackButtonListener backButtonListener;
     private CancelEventButtonListener cancelEventButtonListener;
     private EventSignUpUI eventSignUpUI;
 
-    public ViewUserEventsUI(ArrayList<String> listOfUserEvents) {
+    public ViewUserEventsUI(ListModel<String> listOfUserEvents) {
         this.jPanel = new JPanel();
 
         this.setTitle("Your Events");
@@ -37,7 +36,8 @@ public class ViewUserEventsUI extends JFrame implements IViewUserEventsUI {
         this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         this.setLocationRelativeTo(null);
 
-        listOfEvents = new JList<>(listOfUserEvents.toArray());
+        listOfEvents = new JList<>(listOfUserEvents);
+        EventRows.setFixedCellSize(listOfEvents);
         listOfEvents.setVisibleRowCount(20);
         jScrollPane = new JScrollPane(listOfEvents, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
                 JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -5,7 +5,7 @@ import main.guilisteners.BackButtonListener;
 import main.guilisteners.SignUpButtonListener;
 import main.guilisteners.ViewEventsButtonListener;
 
-import java.util.ArrayList;
+import javax.swing.*;
 
 public interface IEventSignUpUI extends IView {
     void addSignUpButtonListener(SignUpButtonListener listener);
@@ -13,7 +13,7 @@ public interface IEventSignUpUI extends IView {
     void addBackButtonListener(BackButtonListener listener);
     AttendeeMainUI goToAttendeeMainUI();
     OrganizerMainUI goToOrganizerMainUI();
-    DisplayAllEventsUI goToDisplayAllEventsUI(ArrayList<String> listOfEvents);
-    ViewUserEventsUI goToViewUserEventsUI(ArrayList<String> listOfUserEvents);
+    DisplayAllEventsUI goToDisplayAllEventsUI(ListModel<String> listOfEvents);
+    ViewUserEventsUI goToViewUserEventsUI(ListModel<String> listOfUserEvents);
     AdminMainUI goToAdminMainUI();
 }
@@ -4,6 +4,7 @@ package main.gui_interface;
 import main.gui.*;
 import main.guilisteners.*;
 
+import javax.swing.*;
 import java.util.ArrayList;
 
 public interface IEventsManagementUI extends IView {
@@ -20,5 +21,5 @@ public interface IEventsManagementUI extends IView {
     ModifyEventUI goToModifyEventUI();
     SeeRoomsUI goToSeeRoomsUI(ArrayList<String> listOfRoomsInfo);
     void addSeeScheduleButtonListener(SeeScheduleButtonListener listener);
-    SeeScheduleUI goToSeeScheduleUI(ArrayList<String> listOfEventInfo);
+    SeeScheduleUI goToSeeScheduleUI(ListModel<String> listOfEventInfo);
 }
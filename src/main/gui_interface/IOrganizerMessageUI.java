@@ -98,6 +98,13 @@ public interface IOrganizerMessageUI extends IView {
      */
     JList getUsersList();
 
+    /**
+     * Display how many receivers got a broadcast so far
+     * @param delivered how many receivers got the message so far
+     * @param total how many receivers get it
+     */
+    void sendMessageProgress(int delivered, int total);
+
     /**
      * Display a "message sent" notification
      */
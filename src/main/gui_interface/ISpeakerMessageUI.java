@@ -69,6 +69,13 @@ public interface ISpeakerMessageUI extends IView {
      */
     JList getEventsList();
 
+    /**
+     * Display how many receivers got a broadcast so far
+     * @param delivered how many receivers got the message so far
+     * @param total how many receivers get it
+     */
+    void sendMessageProgress(int delivered, int total);
+
     /**
      * Display a "message sent" notification
      */
@@ -23,10 +23,12 @@ public class DisplayAllEventsUIPresenter
     private EventController eventController;
     private IDisplayAllEventsUI iDisplayAllEventsUI;
     private IEventSignUpUI iEventSignUpUI;
+    private EventListModel listOfEvents;
 
     public DisplayAllEventsUIPresenter(IDisplayAllEventsUI displayAllEventsUI,
-                                       ProgramController programController) {
+                                       ProgramController programController, EventListModel listOfEvents) {
         this.iDisplayAllEventsUI = displayAllEventsUI;
+        this.listOfEvents = listOfEvents;
         this.programController = programController;
         this.authController = programController.getAuthController();
         this.eventController = programController.getEventController();
@@ -51,9 +53,9 @@ public class DisplayAllEventsUIPresenter
     public void onRegisterEventButtonClicked() {
         String userId = authController.fetchLoggedInUser();
         try {
-            if (eventController.getAllEvents().size() > 0) {
+            if (listOfEvents.getSize() > 0) {
                 int eventIndex = iDisplayAllEventsUI.getEventIndexFromList();
-                String eventId = eventController.getEventId(eventIndex);
+                String eventId = listOfEvents.getEventId(eventIndex);
                 if (eventController.signupEvent(eventId, userId)) {
                     iDisplayAllEventsUI.registerNewEventSuccessful();
                 } else {
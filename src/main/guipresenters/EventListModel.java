@@ -0,0 +1,52 @@
+package main.guipresenters;
+
+import main.controllers.EventController;
+import main.usecases.EventView;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * The rows of a list of events, each described only when the list asks for it, which a JList with a fixed cell size
+ * does for the rows scrolled into view. The events are fixed when the model is made, so the row a user picks keeps
+ * naming the same event even if the schedule changes meanwhile.
+ *
+ * @see EventController#getEventIds()
+ */
+public class EventListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EventController eventController;
+    private final List<String> eventIds;
+
+    /**
+     * @param eventController to describe the events with
+     * @param eventIds        of the events, in the order of the rows; not changed afterwards
+     */
+    public EventListModel(EventController eventController, List<String> eventIds) {
+        this.eventController = eventController;
+        this.eventIds = eventIds;
+    }
+
+    @Override
+    public int getSize() {
+        return eventIds.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        EventView view = eventController.getEventView(eventIds.get(index));
+        return view == null ? "This event was cancelled" : view.toString();
+    }
+
+    /**
+     * Returns the id of the event of a row
+     *
+     * @param index of the row
+     * @return the id of the event
+     */
+    public String getEventId(int index) {
+        return eventIds.get(index);
+    }
+}
@@ -8,8 +8,6 @@ import main.guilisteners.BackButtonListener;
 import main.guilisteners.SignUpButtonListener;
 import main.guilisteners.ViewEventsButtonListener;
 
-import java.util.ArrayList;
-
 /**
  * The presenter class for event registration
  *
@@ -46,9 +44,9 @@ public class EventSignUpUIPresenter implements SignUpButtonListener,
      */
     @Override
     public void onSignUpButtonClicked() {
-        ArrayList<String> listOfEvents = eventController.getEventsInfoList();
+        EventListModel listOfEvents = new EventListModel(eventController, eventController.getEventIds());
         iDisplayAllEventsUI = iEventSignUpUI.goToDisplayAllEventsUI(listOfEvents);
-        new DisplayAllEventsUIPresenter(iDisplayAllEventsUI, programController);
+        new DisplayAllEventsUIPresenter(iDisplayAllEventsUI, programController, listOfEvents);
     }
 
     /**
@@ -57,9 +55,9 @@ public class EventSignUpUIPresenter implements SignUpButtonListener,
     @Override
     public void onViewEventsButtonClicked() {
         String userId = this.authController.fetchLoggedInUser();
-        ArrayList<String> listOfUserEvents = eventController.getUserEventsList(userId);
+        EventListModel listOfUserEvents = new EventListModel(eventController, eventController.getUserEventIds(userId));
         iViewUserEventsUI = iEventSignUpUI.goToViewUserEventsUI(listOfUserEvents);
-        new ViewUserEventsUIPresenter(iViewUserEventsUI, programController);
+        new ViewUserEventsUIPresenter(iViewUserEventsUI, programController, listOfUserEvents);
     }
 
     /**
@@ -1,6 +1,7 @@
 package main.guipresenters;
 
 
+import main.controllers.EventController;
 import main.controllers.OrganizerController;
 import main.controllers.ProgramController;
 import main.gui_interface.*;
@@ -117,8 +118,8 @@ public class EventsManagementUIPresenter implements BackButtonListener,
     @Override
     public void onSeeScheduleButtonClicked() {
         programController.saveForNext();
-        ArrayList<String> events = organizerController.
-                getEventController().getEventsInfoList();
+        EventController eventController = organizerController.getEventController();
+        EventListModel events = new EventListModel(eventController, eventController.getEventIds());
         iSeeScheduleUI = iEventsManagementUI.goToSeeScheduleUI(events);
         new SeeScheduleUIPresenter(iSeeScheduleUI, programController);
     }
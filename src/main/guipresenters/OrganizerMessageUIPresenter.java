@@ -1,6 +1,7 @@
 package main.guipresenters;
 
 import main.controllers.AuthController;
+import main.controllers.BroadcastListener;
 import main.controllers.MessageController;
 import main.controllers.ProgramController;
 import main.gui_interface.IAdminMainUI;
@@ -9,6 +10,7 @@ import main.gui_interface.IOrganizerMessageUI;
 import main.guilisteners.*;
 import main.usecases.UsersManager;
 
+import javax.swing.*;
 import java.util.ArrayList;
 
 /**
@@ -44,9 +46,8 @@ public class OrganizerMessageUIPresenter implements BackButtonListener, SendButt
             iOrganizerMessageUI.sendMessageError();
         }
         else {
-            this.messageController.broadCastToAttendees(this.authController.fetchLoggedInUser(), message);
-            programController.saveForNext();
-            iOrganizerMessageUI.sendMessageSuccessful();
+            this.messageController.broadCastToAttendees(this.authController.fetchLoggedInUser(), message,
+                    this.deliveryListener());
         }
     }
 
@@ -57,12 +58,34 @@ public class OrganizerMessageUIPresenter implements BackButtonListener, SendButt
             iOrganizerMessageUI.sendMessageError();
         }
         else {
-            this.messageController.broadCastToSpeakers(this.authController.fetchLoggedInUser(), message);
-            programController.saveForNext();
-            iOrganizerMessageUI.sendMessageSuccessful();
+            this.messageController.broadCastToSpeakers(this.authController.fetchLoggedInUser(), message,
+                    this.deliveryListener());
         }
     }
 
+    /**
+     * @return a listener showing how a broadcast is getting on, once it is delivered in the background
+     */
+    private BroadcastListener deliveryListener() {
+        return new BroadcastListener() {
+            @Override
+            public void onProgress(int delivered, int total) {
+                SwingUtilities.invokeLater(() -> iOrganizerMessageUI.sendMessageProgress(delivered, total));
+            }
+
+            @Override
+            public void onDone(int delivered, int total) {
+                SwingUtilities.invokeLater(() -> {
+                    if (delivered == total) {
+                        iOrganizerMessageUI.sendMessageSuccessful();
+                    } else {
+                        iOrganizerMessageUI.sendMessageError();
+                    }
+                });
+            }
+        };
+    }
+
     @Override
     public void onBackButtonClicked() {
         String type = this.usersManager.fetchType(this.authController.fetchLoggedInUser());
@@ -85,9 +108,8 @@ public class OrganizerMessageUIPresenter implements BackButtonListener, SendButt
             iOrganizerMessageUI.sendMessageError();
         }
         else {
-            this.messageController.broadCastToAll(this.authController.fetchLoggedInUser(), message);
-            programController.saveForNext();
-            iOrganizerMessageUI.sendMessageSuccessful();
+            this.messageController.broadCastToAll(this.authController.fetchLoggedInUser(), message,
+                    this.deliveryListener());
         }
     }
 
@@ -1,6 +1,7 @@
 package main.guipresenters;
 
 import main.controllers.AuthController;
+import main.controllers.BroadcastListener;
 import main.controllers.EventController;
 import main.controllers.MessageController;
 import main.controllers.ProgramController;
@@ -10,6 +11,8 @@ import main.guilisteners.BackButtonListener;
 import main.guilisteners.BroadcastButtonListener;
 import main.guilisteners.SendButtonListener;
 
+import javax.swing.*;
+
 /**
  * The presenter for <code>SpeakerMessageUI</code>
  *
@@ -46,9 +49,24 @@ public class SpeakerMessageUIPresenter implements BackButtonListener, BroadcastB
         String message = iSpeakerMessageUI.getMessage();
         if (i != -1 && message.length() > 0) {
             String eventID = this.eventController.getSpeakerEvents(this.authController.fetchLoggedInUser()).get(i);
-            this.messageController.broadCastForSpeaker(eventID, this.authController.fetchLoggedInUser(), message);
-            programController.saveForNext();
-            iSpeakerMessageUI.sendMessageSuccessful();
+            this.messageController.broadCastForSpeaker(eventID, this.authController.fetchLoggedInUser(), message,
+                    new BroadcastListener() {
+                        @Override
+                        public void onProgress(int delivered, int total) {
+                            SwingUtilities.invokeLater(() -> iSpeakerMessageUI.sendMessageProgress(delivered, total));
+                        }
+
+                        @Override
+                        public void onDone(int delivered, int total) {
+                            SwingUtilities.invokeLater(() -> {
+                                if (delivered == total) {
+                                    iSpeakerMessageUI.sendMessageSuccessful();
+                                } else {
+                                    iSpeakerMessageUI.sendMessageError();
+                                }
+                            });
+                        }
+                    });
         }
         else {
             iSpeakerMessageUI.sendMessageError();
@@ -8,8 +8,6 @@ import main.gui_interface.IViewUserEventsUI;
 import main.guilisteners.BackButtonListener;
 import main.guilisteners.CancelEventButtonListener;
 
-import java.util.ArrayList;
-
 /**
  * Presenter class for viewing a list of events of a particular user
  *
@@ -25,10 +23,12 @@ public class ViewUserEventsUIPresenter
     private EventController eventController;
     private IViewUserEventsUI iViewUserEventsUI;
     private IEventSignUpUI iEventSignUpUI;
+    private EventListModel listOfUserEvents;
 
     public ViewUserEventsUIPresenter(IViewUserEventsUI viewUserEventsUI,
-                                     ProgramController programController) {
+                                     ProgramController programController, EventListModel listOfUserEvents) {
         this.iViewUserEventsUI = viewUserEventsUI;
+        this.listOfUserEvents = listOfUserEvents;
         this.programController = programController;
         this.authController = programController.getAuthController();
         this.eventController = programController.getEventController();
@@ -53,15 +53,13 @@ public class ViewUserEventsUIPresenter
     public void onCancelEventButtonClicked() {
         String userId = authController.fetchLoggedInUser();
         try {
-            if (eventController.getUserEventIds(userId).size() > 0) {
+            if (listOfUserEvents.getSize() > 0) {
                 int eventIndex = iViewUserEventsUI.getEventIndexFromList();
                 if (eventIndex < 0) {
                     iViewUserEventsUI.cancelNewEventError();
                     return;
                 }
-                ArrayList<String> attendeesEvents = eventController.getUserEventIds(userId);
-                String eventId = attendeesEvents.get(eventIndex);
-//                String eventId = eventController.getEventId(eventIndex);
+                String eventId = listOfUserEvents.getEventId(eventIndex);
                 if (eventController.cancelEvent(eventId, userId)) {
                     iViewUserEventsUI.cancelNewEventSuccessful();
                 } else {
@@ -0,0 +1,24 @@
+package main.httpapi;
+
+/**
+ * A request that cannot be served, answered with the given HTTP status and message
+ */
+class ApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    /**
+     * @param status  HTTP status of the response
+     * @param message explaining why the request cannot be served
+     */
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
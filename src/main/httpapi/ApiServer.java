@@ -0,0 +1,108 @@
+package main.httpapi;
+
+import com.sun.net.httpserver.HttpServer;
+import main.controllers.ProgramController;
+import main.gateways.GatewayFactory;
+import main.gateways.sqlgateway.SQLiteGateway;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the controllers of a program as a JSON API over HTTP, without the GUI:
+ * /api/auth, /api/events, /api/messages and /api/inbox. See the handler of each path for its requests.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_THREADS = 16;
+    private static final int QUEUED_REQUESTS = 256;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param program whose data is already loaded
+     * @param port    to listen on, 0 for any free port
+     * @throws IOException if the server cannot listen on the port
+     */
+    public ApiServer(ProgramController program, int port) throws IOException {
+        this(program, port, DEFAULT_THREADS);
+    }
+
+    /**
+     * @param program whose data is already loaded
+     * @param port    to listen on, 0 for any free port
+     * @param threads the most requests answered at once
+     * @throws IOException if the server cannot listen on the port
+     */
+    public ApiServer(ProgramController program, int port, int threads) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), QUEUED_REQUESTS);
+        // a bounded pool and queue, so that a burst of requests slows the clients down instead of piling up
+        // threads; when both are full the thread accepting connections answers the request itself
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUED_REQUESTS), runnable -> {
+                    Thread thread = new Thread(runnable, "api-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.server.setExecutor(executor);
+
+        Sessions sessions = new Sessions();
+        server.createContext("/api/auth", new AuthHandler(program, sessions));
+        server.createContext("/api/events", new EventsHandler(program, sessions));
+        server.createContext("/api/messages", new MessagesHandler(program, sessions));
+        server.createContext("/api/inbox", new InboxHandler(program, sessions));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, and waits a little for the ones being answered
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Starts the API
+     *
+     * @param args optionally the port, 8080 by default, and the path of the SQLite database file,
+     *             src/store/app.db by default, or "journal:" followed by a directory to keep snapshots and a
+     *             journal in
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String location = args.length > 1 ? args[1] : SQLiteGateway.DEFAULT_PATH;
+        ProgramController program = new ProgramController(new GatewayFactory().getGateway(location));
+        program.startUI();
+        ApiServer apiServer = new ApiServer(program, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            program.shutdown();
+        }, "stop-api"));
+        apiServer.start();
+        System.out.println("Listening on port " + apiServer.getPort());
+    }
+}
@@ -0,0 +1,78 @@
+package main.httpapi;
+
+import main.controllers.AuthController;
+import main.controllers.ProgramController;
+import main.usecases.UsersManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handles /api/auth: registering, logging in and out, and who is logged in.
+ * <ul>
+ *     <li>POST /api/auth/register {"username", "password"}, registers an attendee</li>
+ *     <li>POST /api/auth/login {"username", "password"}, answers the token to send as "Authorization: Bearer"</li>
+ *     <li>POST /api/auth/logout</li>
+ *     <li>GET /api/auth/me</li>
+ * </ul>
+ */
+class AuthHandler extends JsonHandler {
+
+    private final AuthController authController;
+    private final UsersManager usersManager;
+
+    AuthHandler(ProgramController program, Sessions sessions) {
+        super(program, sessions);
+        this.authController = program.getAuthController();
+        this.usersManager = program.getUsersManager();
+    }
+
+    @Override
+    Object answer(Request request) {
+        String action = request.getPath().isEmpty() ? "" : request.getPath().get(0);
+        switch (action) {
+            case "register":
+                return this.register(request);
+            case "login":
+                return this.login(request);
+            case "logout":
+                request.requireMethod("POST");
+                sessions.close(request.getToken());
+                return status("Logged out");
+            case "me":
+                request.requireMethod("GET");
+                return this.user(request.requireUser());
+            default:
+                throw new ApiException(404, "No such action");
+        }
+    }
+
+    private Object register(Request request) {
+        request.requireMethod("POST");
+        // unlike on the register screen, anyone can reach the API, so it only registers attendees
+        if (!authController.registerUser(request.getString("username"), request.getString("password"), "Attendee")) {
+            throw new ApiException(409, "Username taken, not an email address, or password shorter than 5");
+        }
+        this.saveChanges();
+        return status("Registered");
+    }
+
+    private Object login(Request request) {
+        request.requireMethod("POST");
+        String userId = authController.authenticate(request.getString("username"), request.getString("password"));
+        if (userId == null) {
+            throw new ApiException(401, "Wrong username or password");
+        }
+        Map<String, Object> response = this.user(userId);
+        response.put("token", sessions.open(userId));
+        return response;
+    }
+
+    private Map<String, Object> user(String userId) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", userId);
+        user.put("username", usersManager.getUsernameFromID(userId));
+        user.put("type", usersManager.fetchType(userId));
+        return user;
+    }
+}
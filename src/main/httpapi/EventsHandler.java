@@ -0,0 +1,142 @@
+package main.httpapi;
+
+import main.controllers.EventController;
+import main.controllers.OrganizerController;
+import main.controllers.ProgramController;
+import main.entities.Event;
+import main.usecases.EventView;
+import main.usecases.UsersManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles /api/events: the schedule, and signing up for and organizing events.
+ * <ul>
+ *     <li>GET /api/events, every scheduled event</li>
+ *     <li>GET /api/events/mine, the events the user signed up for</li>
+ *     <li>GET /api/events/{id}</li>
+ *     <li>POST /api/events/{id}/signup and POST /api/events/{id}/cancel</li>
+ *     <li>POST /api/events {"title", "time", "room", "duration", "capacity", "type"}, organizers only; time is
+ *     ISO-8601 such as 2020-12-01T10:00</li>
+ *     <li>DELETE /api/events/{id}, organizers only</li>
+ * </ul>
+ */
+class EventsHandler extends JsonHandler {
+
+    private final EventController eventController;
+    private final OrganizerController organizerController;
+    private final UsersManager usersManager;
+
+    EventsHandler(ProgramController program, Sessions sessions) {
+        super(program, sessions);
+        this.eventController = program.getEventController();
+        this.organizerController = new OrganizerController(program);
+        this.usersManager = program.getUsersManager();
+    }
+
+    @Override
+    Object answer(Request request) {
+        List<String> path = request.getPath();
+        String userId = request.requireUser();
+        if (path.isEmpty()) {
+            if ("POST".equals(request.getMethod())) {
+                return this.create(request, userId);
+            }
+            request.requireMethod("GET");
+            List<Object> events = new ArrayList<>();
+            for (EventView event : eventController.getEventViews()) {
+                events.add(this.event(event));
+            }
+            return events;
+        }
+        if (path.size() == 1 && "mine".equals(path.get(0))) {
+            request.requireMethod("GET");
+            List<Object> events = new ArrayList<>();
+            for (String eventId : eventController.getUserEventIds(userId)) {
+                EventView event = eventController.getEventView(eventId);
+                if (event != null) {
+                    events.add(this.event(event));
+                }
+            }
+            return events;
+        }
+        Event event = eventController.getSingleEvent(path.get(0));
+        if (event == null) {
+            throw new ApiException(404, "No such event");
+        }
+        if (path.size() == 1) {
+            if ("DELETE".equals(request.getMethod())) {
+                this.requireOrganizer(userId);
+                if (!organizerController.removeEvent(event.getId())) {
+                    throw new ApiException(409, "Could not remove the event");
+                }
+                this.saveChanges();
+                return status("Removed");
+            }
+            request.requireMethod("GET");
+            EventView view = eventController.getEventView(event.getId());
+            if (view == null) {
+                throw new ApiException(404, "No such event");
+            }
+            return this.event(view);
+        }
+        if (path.size() == 2 && "signup".equals(path.get(1))) {
+            request.requireMethod("POST");
+            if (!eventController.signupEvent(event.getId(), userId)) {
+                throw new ApiException(409, "Already signed up or the event is full");
+            }
+            this.saveChanges();
+            return status("Signed up");
+        }
+        if (path.size() == 2 && "cancel".equals(path.get(1))) {
+            request.requireMethod("POST");
+            if (!eventController.cancelEvent(event.getId(), userId)) {
+                throw new ApiException(409, "Not signed up for the event");
+            }
+            this.saveChanges();
+            return status("Cancelled");
+        }
+        throw new ApiException(404, "No such action");
+    }
+
+    private Object create(Request request, String userId) {
+        this.requireOrganizer(userId);
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.parse(request.getString("time"));
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "time should look like 2020-12-01T10:00");
+        }
+        if (!organizerController.createEvent(request.getString("title"), time, request.getInt("room"),
+                request.getInt("duration"), request.getInt("capacity"), request.getString("type"))) {
+            throw new ApiException(409, "No such room, the room is taken at that time, or it is too small");
+        }
+        this.saveChanges();
+        return status("Created");
+    }
+
+    private void requireOrganizer(String userId) {
+        if (!"Organizer".equals(usersManager.fetchType(userId))) {
+            throw new ApiException(403, "Only organizers can do that");
+        }
+    }
+
+    private Map<String, Object> event(EventView event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", event.getId());
+        json.put("title", event.getTitle());
+        json.put("time", event.getTime().toString());
+        json.put("room", event.getRoomNum());
+        json.put("duration", event.getDuration());
+        json.put("capacity", event.getCapacity());
+        json.put("seatsLeft", event.getSeatsLeft());
+        json.put("type", event.getType());
+        json.put("speakers", event.getSpeakerNames());
+        return json;
+    }
+}
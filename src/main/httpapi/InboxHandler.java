@@ -0,0 +1,23 @@
+package main.httpapi;
+
+import main.controllers.InboxController;
+import main.controllers.ProgramController;
+
+/**
+ * Handles /api/inbox: GET answers the messages of the user, by message id.
+ */
+class InboxHandler extends JsonHandler {
+
+    private final InboxController inboxController;
+
+    InboxHandler(ProgramController program, Sessions sessions) {
+        super(program, sessions);
+        this.inboxController = new InboxController(program);
+    }
+
+    @Override
+    Object answer(Request request) {
+        request.requireMethod("GET");
+        return inboxController.getMessagesOfUser(request.requireUser());
+    }
+}
@@ -0,0 +1,265 @@
+package main.httpapi;
+
+import java.util.*;
+
+/**
+ * Just enough JSON for the HTTP API: writes maps, lists, strings, numbers and booleans, and reads request bodies
+ * into the same kinds of values.
+ */
+class Json {
+
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+        this.pos = 0;
+    }
+
+    /**
+     * Writes a value as JSON
+     *
+     * @param value a Map with String keys, an Iterable, a String, a Number, a Boolean or null
+     * @return the JSON text
+     */
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(item, out);
+            }
+            out.append(']');
+        } else {
+            writeString(value.toString(), out);
+        }
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Reads a JSON object
+     *
+     * @param text of the object
+     * @return the members of the object, as Maps, Lists, Strings, Doubles, Booleans or null
+     * @throws IllegalArgumentException if the text is not a JSON object
+     */
+    static Map<String, Object> readObject(String text) {
+        Json json = new Json(text);
+        json.skipWhitespace();
+        if (json.pos >= text.length() || text.charAt(json.pos) != '{') {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) json.readValue();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw new IllegalArgumentException("Unexpected text after the JSON object");
+        }
+        return object;
+    }
+
+    private Object readValue() {
+        this.skipWhitespace();
+        if (pos >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return this.readMembers();
+            case '[':
+                return this.readItems();
+            case '"':
+                return this.readString();
+            case 't':
+                this.expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                this.expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                this.expect("null");
+                return null;
+            default:
+                return this.readNumber();
+        }
+    }
+
+    private Map<String, Object> readMembers() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;
+        this.skipWhitespace();
+        if (this.peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            this.skipWhitespace();
+            String key = this.readString();
+            this.skipWhitespace();
+            this.expect(":");
+            object.put(key, this.readValue());
+            this.skipWhitespace();
+            if (this.peek() == ',') {
+                pos++;
+            } else {
+                this.expect("}");
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readItems() {
+        List<Object> items = new ArrayList<>();
+        pos++;
+        this.skipWhitespace();
+        if (this.peek() == ']') {
+            pos++;
+            return items;
+        }
+        while (true) {
+            items.add(this.readValue());
+            this.skipWhitespace();
+            if (this.peek() == ',') {
+                pos++;
+            } else {
+                this.expect("]");
+                return items;
+            }
+        }
+    }
+
+    private String readString() {
+        this.expect("\"");
+        StringBuilder value = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw new IllegalArgumentException("Bad unicode escape in JSON string");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string");
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+            pos++;
+        }
+        try {
+            return Double.valueOf(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad JSON value at " + start);
+        }
+    }
+
+    private void expect(String token) {
+        if (!text.startsWith(token, pos)) {
+            throw new IllegalArgumentException("Expected " + token + " at " + pos);
+        }
+        pos += token.length();
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package main.httpapi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.controllers.ProgramController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the handlers of the HTTP API: reads the request, lets the subclass answer it with a JSON value, and writes
+ * that value, or the error it raised, as the response.
+ */
+abstract class JsonHandler implements HttpHandler {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    final ProgramController program;
+    final Sessions sessions;
+
+    /**
+     * @param program  whose controllers the handler calls
+     * @param sessions of the logged in users
+     */
+    JsonHandler(ProgramController program, Sessions sessions) {
+        this.program = program;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Answers a request
+     *
+     * @param request to answer
+     * @return the JSON value of the response
+     * @throws ApiException if the request cannot be served
+     */
+    abstract Object answer(Request request);
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object response;
+        try {
+            response = this.answer(new Request(exchange));
+        } catch (ApiException e) {
+            status = e.getStatus();
+            response = Collections.singletonMap("error", e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Error answering " + exchange.getRequestURI() + ": " + e);
+            status = 500;
+            response = Collections.singletonMap("error", "Internal error");
+        }
+        byte[] body = Json.write(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @param status what was done
+     * @return the response of a request that only changed something
+     */
+    static Map<String, Object> status(String status) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", status);
+        return response;
+    }
+
+    /**
+     * Asks the program to save what the request changed, in the background
+     */
+    void saveChanges() {
+        program.saveForNext();
+    }
+
+    /**
+     * A request to the API
+     */
+    class Request {
+
+        private final HttpExchange exchange;
+        private final List<String> path;
+        private Map<String, Object> body;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            // the segments after the path the handler is registered under
+            String context = exchange.getHttpContext().getPath();
+            String rest = exchange.getRequestURI().getPath().substring(context.length());
+            this.path = new ArrayList<>();
+            for (String segment : rest.split("/")) {
+                if (!segment.isEmpty()) {
+                    this.path.add(segment);
+                }
+            }
+        }
+
+        String getMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        /**
+         * @return the segments of the path after the path the handler is registered under
+         */
+        List<String> getPath() {
+            return path;
+        }
+
+        /**
+         * @param method the request should use
+         * @throws ApiException if it uses another
+         */
+        void requireMethod(String method) {
+            if (!method.equals(this.getMethod())) {
+                throw new ApiException(405, "Use " + method);
+            }
+        }
+
+        /**
+         * @return the token the request was sent with, null if there is none
+         */
+        String getToken() {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization == null || !authorization.startsWith("Bearer ")) {
+                return null;
+            }
+            return authorization.substring("Bearer ".length()).trim();
+        }
+
+        /**
+         * @return the id of the user logged in with the token of the request
+         * @throws ApiException if no user is
+         */
+        String requireUser() {
+            String userId = sessions.userOf(this.getToken());
+            if (userId == null) {
+                throw new ApiException(401, "Log in first");
+            }
+            return userId;
+        }
+
+        /**
+         * @param name of a member of the JSON body
+         * @return its value as a string
+         * @throws ApiException if the body has no such member
+         */
+        String getString(String name) {
+            Object value = this.getBody().get(name);
+            if (value == null) {
+                throw new ApiException(400, "Missing " + name);
+            }
+            return value.toString();
+        }
+
+        /**
+         * @param name of a member of the JSON body
+         * @return its value as an int
+         * @throws ApiException if the body has no such member or it is not a number
+         */
+        int getInt(String name) {
+            Object value = this.getBody().get(name);
+            if (!(value instanceof Number)) {
+                throw new ApiException(400, "Missing number " + name);
+            }
+            return ((Number) value).intValue();
+        }
+
+        private Map<String, Object> getBody() {
+            if (body == null) {
+                try {
+                    body = Json.readObject(this.readBody());
+                } catch (IllegalArgumentException e) {
+                    throw new ApiException(400, e.getMessage());
+                }
+            }
+            return body;
+        }
+
+        private String readBody() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            try (InputStream in = exchange.getRequestBody()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                    if (bytes.size() > MAX_BODY_BYTES) {
+                        throw new ApiException(413, "Request body too large");
+                    }
+                }
+            } catch (IOException e) {
+                throw new ApiException(400, "Could not read the request body");
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
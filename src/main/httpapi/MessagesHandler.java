@@ -0,0 +1,53 @@
+package main.httpapi;
+
+import main.controllers.MessageController;
+import main.controllers.ProgramController;
+import main.usecases.UsersManager;
+
+/**
+ * Handles /api/messages: POST {"receiver", "text"} sends a message to the user with the username receiver.
+ * Users may only message the receivers the GUI offers them: speakers reply to the users who messaged them, and
+ * everyone else messages anyone but organizers.
+ */
+class MessagesHandler extends JsonHandler {
+
+    private final MessageController messageController;
+    private final UsersManager usersManager;
+
+    MessagesHandler(ProgramController program, Sessions sessions) {
+        super(program, sessions);
+        this.messageController = program.getMessageController();
+        this.usersManager = program.getUsersManager();
+    }
+
+    @Override
+    Object answer(Request request) {
+        request.requireMethod("POST");
+        String userId = request.requireUser();
+        String receiverId = usersManager.getIDFromUsername(request.getString("receiver"));
+        if (receiverId.isEmpty()) {
+            throw new ApiException(404, "No such receiver");
+        }
+        if (!this.mayMessage(userId, receiverId)) {
+            throw new ApiException(403, "You cannot message that user");
+        }
+        messageController.sendMessage(userId, receiverId, request.getString("text"));
+        this.saveChanges();
+        return status("Sent");
+    }
+
+    /**
+     * Checks the receiver against the rules of the GUI by looking up its type, instead of listing every user the
+     * sender may message
+     *
+     * @param userId     of the sender
+     * @param receiverId of the receiver
+     * @return whether the sender may message the receiver
+     */
+    private boolean mayMessage(String userId, String receiverId) {
+        if ("Speaker".equals(usersManager.fetchType(userId))) {
+            return messageController.replyOptionsForSpeaker(userId).contains(receiverId);
+        }
+        return !receiverId.equals(userId) && !"Organizer".equals(usersManager.fetchType(receiverId));
+    }
+}
@@ -0,0 +1,52 @@
+package main.httpapi;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The users logged in through the HTTP API, each known by a random token handed out at login.
+ * Unlike AuthController, which remembers the one user of the GUI, any number of users can be logged in at once.
+ */
+class Sessions {
+
+    private final Map<String, String> userIds; // token -> id of the logged in user
+    private final SecureRandom random;
+
+    Sessions() {
+        this.userIds = new ConcurrentHashMap<>();
+        this.random = new SecureRandom();
+    }
+
+    /**
+     * Logs a user in
+     *
+     * @param userId of the user
+     * @return the token identifying the session
+     */
+    String open(String userId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        userIds.put(token, userId);
+        return token;
+    }
+
+    /**
+     * @param token of a session
+     * @return the id of the user logged in with the token, null if there is none
+     */
+    String userOf(String token) {
+        return token == null ? null : userIds.get(token);
+    }
+
+    /**
+     * Logs out the user of a session
+     *
+     * @param token of the session
+     */
+    void close(String token) {
+        userIds.remove(token);
+    }
+}
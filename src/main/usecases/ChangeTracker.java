@@ -0,0 +1,104 @@
+package main.usecases;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ChangeTracker remembers the ids of the entities of a manager that were added, changed or removed since they
+ * were last loaded from or saved to a Gateway, so that only those have to be written back.
+ * It is thread-safe, so managers used by several threads at once can share one.
+ */
+class ChangeTracker {
+
+    private final Set<String> changed;
+    private final Set<String> removed;
+
+    ChangeTracker() {
+        this.changed = new LinkedHashSet<>();
+        this.removed = new LinkedHashSet<>();
+    }
+
+    /**
+     * Record that an entity was added or changed.
+     *
+     * @param id of the entity
+     */
+    synchronized void markChanged(String id) {
+        removed.remove(id);
+        changed.add(id);
+    }
+
+    /**
+     * Record that an entity was removed.
+     *
+     * @param id of the entity
+     */
+    synchronized void markRemoved(String id) {
+        changed.remove(id);
+        removed.add(id);
+    }
+
+    /**
+     * @return true iff nothing changed since the last load or save
+     */
+    synchronized boolean isEmpty() {
+        return changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * @return the ids of the added or changed entities
+     */
+    synchronized Set<String> getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return the ids of the removed entities
+     */
+    synchronized List<String> getRemoved() {
+        return new ArrayList<>(removed);
+    }
+
+    /**
+     * Forget every change, called once the entities are in sync with the Gateway.
+     */
+    synchronized void clear() {
+        changed.clear();
+        removed.clear();
+    }
+
+    /**
+     * Take every change recorded so far, leaving this ChangeTracker empty. Done in one step, so a change recorded
+     * by another thread meanwhile is kept for the next save instead of being lost.
+     *
+     * @return a ChangeTracker holding the changes taken
+     */
+    synchronized ChangeTracker drain() {
+        ChangeTracker drained = new ChangeTracker();
+        drained.changed.addAll(changed);
+        drained.removed.addAll(removed);
+        this.clear();
+        return drained;
+    }
+
+    /**
+     * Put back changes taken by drain whose save failed, so the next save writes them again. Changes recorded
+     * since the drain are newer, so they win over the ones put back.
+     *
+     * @param drained the ChangeTracker returned by drain
+     */
+    synchronized void restore(ChangeTracker drained) {
+        for (String id : drained.changed) {
+            if (!removed.contains(id)) {
+                changed.add(id);
+            }
+        }
+        for (String id : drained.removed) {
+            if (!changed.contains(id)) {
+                removed.add(id);
+            }
+        }
+    }
+}
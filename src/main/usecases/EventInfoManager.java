@@ -1,13 +1,15 @@
 package main.usecases;
 
 import main.entities.Event;
-import main.entities.Room;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 
 
 /**
@@ -22,6 +24,7 @@ public class EventInfoManager {
 
     private final Event event;
     private final Map<String, Event> schedule;
+    private EventsManager eventsManager;
     private RoomManager roomManager;
     private UsersManager usersManager;
 
@@ -49,6 +52,28 @@ public class EventInfoManager {
         this.usersManager = um;
     }
 
+    /**
+     * Class constructor that keeps the indexes of the EventsManager up to date
+     *
+     * @param eventId       that going to be modified
+     * @param eventsManager that holds the schedule of events
+     */
+    public EventInfoManager(String eventId, EventsManager eventsManager) {
+        this(eventId, eventsManager.getSchedule());
+        this.eventsManager = eventsManager;
+    }
+
+    /**
+     * @param eventId       that going to be modified
+     * @param eventsManager that holds the schedule of events
+     * @param rm            to get room info
+     * @param um            to get speaker info
+     */
+    public EventInfoManager(String eventId, EventsManager eventsManager, RoomManager rm, UsersManager um) {
+        this(eventId, eventsManager.getSchedule(), rm, um);
+        this.eventsManager = eventsManager;
+    }
+
     /**
      * Add speaker to the event depends on the event type
      *
@@ -56,19 +81,29 @@ public class EventInfoManager {
      * @return verification of success addition
      */
     public boolean addSpeaker(String newSpeakerId) {
+        return this.locked(true, () -> this.addSpeakerLocked(newSpeakerId));
+    }
+
+    private boolean addSpeakerLocked(String newSpeakerId) {
         String eventType = event.getType();
+        // A speaker cannot speak at two events at the same time
+        if (!eventType.equals("NoSpeakerEvent") && this.isSpeakerBusy(newSpeakerId)){
+            return false;
+        }
         // For Single Speaker Event
         if (eventType.equals("OneSpeakerEvent")){
-            if (event.getSpeakers().size() == 0) {
+            if (event.getSpeakerCount() == 0) {
                 event.addSpeaker(newSpeakerId);
+                this.indexSpeaker(newSpeakerId);
                 return true;
             }
             return false;
         }
         // For Multiple Speaker Event
         else if (eventType.equals("MultiSpeakerEvent")){
-            if (!event.getSpeakers().contains(newSpeakerId)){
+            if (!event.hasSpeaker(newSpeakerId)){
                 event.addSpeaker(newSpeakerId);
+                this.indexSpeaker(newSpeakerId);
                 return true;
             }
             return false;
@@ -77,6 +112,21 @@ public class EventInfoManager {
         return false;
     }
 
+    private boolean isSpeakerBusy(String speakerId) {
+        EventScheduler scheduler = new EventScheduler();
+        if (eventsManager == null) {
+            return scheduler.isSpeakerConflict(schedule, event, speakerId);
+        }
+        return scheduler.isSpeakerConflict(eventsManager.getScheduleIndex(), event, speakerId);
+    }
+
+    private void indexSpeaker(String speakerId) {
+        if (eventsManager != null) {
+            eventsManager.getScheduleIndex().addSpeaker(speakerId, event);
+            eventsManager.markChanged(event.getId());
+        }
+    }
+
     /**
      * Remove speaker to the event depends on the event type
      *
@@ -84,11 +134,19 @@ public class EventInfoManager {
      * @return verification of success removal
      */
     public boolean removeSpeaker(String removeSpeakerId) {
+        return this.locked(true, () -> this.removeSpeakerLocked(removeSpeakerId));
+    }
+
+    private boolean removeSpeakerLocked(String removeSpeakerId) {
         String eventType = event.getType();
         // For Single Speaker Event and Multi Speaker Event
         if (eventType.equals("OneSpeakerEvent") || eventType.equals("MultiSpeakerEvent")){
-            if (event.getSpeakers() != null && event.getSpeakers().contains(removeSpeakerId)) {
+            if (event.hasSpeaker(removeSpeakerId)) {
                 event.removeSpeaker(removeSpeakerId);
+                if (eventsManager != null) {
+                    eventsManager.getScheduleIndex().removeSpeaker(removeSpeakerId, event);
+                    eventsManager.markChanged(event.getId());
+                }
                 return true;
             }
             return false;
@@ -99,19 +157,22 @@ public class EventInfoManager {
 
     /**
      * Add an User from a particular event, if the user is already
-     * in the event, do nothing.
+     * in the event, or the event is full, do nothing.
+     * Safe to call from several threads at once, the event cannot be overbooked.
      *
      * @param newUserId that needs to be added
      * @return check if user is added
      */
     public boolean addUser(String newUserId) {
-        int eventSize = event.getAttendeesID().size();
-        boolean notFull = event.getCapacity() > eventSize;
-        if ((!event.getAttendeesID().contains(newUserId)) && notFull) {
-            event.addAttendees(newUserId);
+        return this.locked(false, () -> {
+            if (!this.isScheduled() || !event.addAttendeeIfNotFull(newUserId)) {
+                return false;
+            }
+            if (eventsManager != null) {
+                eventsManager.indexAttendee(newUserId, event.getId());
+            }
             return true;
-        }
-        return false;
+        });
     }
 
 
@@ -122,11 +183,43 @@ public class EventInfoManager {
      * @return check for successful removal
      */
     public boolean removeUser(String removedUserId) {
-        if (event.getAttendeesID().contains(removedUserId)) {
+        return this.locked(false, () -> {
+            if (!this.isScheduled() || !event.hasAttendee(removedUserId)) {
+                return false;
+            }
             event.removeAttendees(removedUserId);
+            if (eventsManager != null) {
+                eventsManager.unindexAttendee(removedUserId, event.getId());
+            }
             return true;
+        });
+    }
+
+    /**
+     * @return false iff the event was cancelled since this EventInfoManager was created
+     */
+    private boolean isScheduled() {
+        return eventsManager == null || eventsManager.getSchedule().get(event.getId()) == event;
+    }
+
+    /**
+     * Runs a change to the event while holding the lock of the EventsManager, if there is one
+     *
+     * @param write  true to hold the write side of the lock, false for the read side
+     * @param change to the event
+     * @return the result of the change
+     */
+    private boolean locked(boolean write, BooleanSupplier change) {
+        if (eventsManager == null) {
+            return change.getAsBoolean();
+        }
+        Lock lock = write ? eventsManager.getLock().writeLock() : eventsManager.getLock().readLock();
+        lock.lock();
+        try {
+            return change.getAsBoolean();
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
 
@@ -140,15 +233,31 @@ public class EventInfoManager {
      * @return check for successful update
      */
     public boolean updateEventInfo(LocalDateTime newTime, String newRoomId, int duration, int newCapacity) {
+        return this.locked(true, () -> this.updateEventInfoLocked(newTime, newRoomId, duration, newCapacity));
+    }
+
+    private boolean updateEventInfoLocked(LocalDateTime newTime, String newRoomId, int duration, int newCapacity) {
         //check event starting and ending between 9A.M to 5P.M
         EventScheduler scheduler = new EventScheduler();
-        if (scheduler.isConflict(schedule, event, newTime, newRoomId, duration)){
-            return false;
+        if (eventsManager == null) {
+            if (scheduler.isConflict(schedule, event, newTime, newRoomId, duration)){
+                return false;
+            }
+        } else {
+            ScheduleIndex scheduleIndex = eventsManager.getScheduleIndex();
+            if (scheduler.isConflict(scheduleIndex, event, newTime, newRoomId, duration)){
+                return false;
+            }
+            scheduleIndex.remove(event);
         }
         event.setTime(newTime);
         event.setRoomID(newRoomId);
         event.setDuration(duration);
         event.setCapacity(newCapacity);
+        if (eventsManager != null) {
+            eventsManager.getScheduleIndex().add(event);
+            eventsManager.markChanged(event.getId());
+        }
         return true;
     }
 
@@ -159,13 +268,7 @@ public class EventInfoManager {
      * @return string representation of the event about its info
      */
     public String infoToString(){
-        int roomNum = -1;
-
-        for (Room room : roomManager.getAllRoomsObject()) {
-            if (room.getId().equals(event.getRoomID())) {
-                roomNum = room.getRoomNum();
-            }
-        }
+        int roomNum = roomManager.getRoomNumGivenId(event.getRoomID());
 
         return "Title: " + event.getTitle() + "\n"
                 + "Time: " + event.getTime() + "\n"
@@ -181,47 +284,57 @@ public class EventInfoManager {
      * @return the information of the event as a string representation.
      */
     public String toString() {
-        String speakerName = speakersOfEvent();
-        int roomNum = -1;
+        return this.toView().toString();
+    }
 
-        for (Room room : roomManager.getAllRoomsObject()) {
-            if (room.getId().equals(event.getRoomID())) {
-                roomNum = room.getRoomNum();
-            }
+    /**
+     * Looks up the room number and speaker names of the event, for screens to show without looking them up again.
+     * Use EventsManager.getEventView to get the one kept for the event.
+     *
+     * @return a read-only view of the event
+     */
+    public EventView toView() {
+        // taken first, so that a change made while looking up makes the view out of date
+        long usersVersion = usersManager.getVersion();
+        long roomsVersion = roomManager.getVersion();
+        List<String> speakerIds = this.registeredSpeakers();
+        List<String> speakerNames = new ArrayList<>();
+        for (String speakerId : speakerIds) {
+            speakerNames.add(usersManager.fetchUser(speakerId).getUsername());
         }
-
-        return "Title: " + event.getTitle() + "\n"
+        int roomNum = roomManager.getRoomNumGivenId(event.getRoomID());
+        String text = "Title: " + event.getTitle() + "\n"
                 + "Time: " + event.getTime() + "\n"
-                + "Speaker: " + speakerName + "\n"
+                + "Speaker: " + speakersOfEvent() + "\n"
                 + "Room: Room #" + roomNum + "\n"
                 + "Duration: " + event.getDuration() + " mins \n"
                 + "Capacity: " + event.getCapacity() + " people \n"
                 + "Type: " + event.getType() + "\n";
+        int capacity = event.getCapacity();
+        return new EventView(event.getId(), event.getTitle(), event.getTime(), roomNum, speakerNames,
+                event.getDuration(), capacity, capacity - event.getAttendeeCount(), event.getType(), text,
+                usersVersion, roomsVersion);
     }
 
     public String speakersOfEvent(){
         if (event.getType().equals("NoSpeakerEvent")){
             return "No speaker";
         }
-        if (event.getSpeakers().size() == 0){
+        if (event.getSpeakerCount() == 0){
             return "No speaker is added yet";
         }
         String speakerName = " ";
         switch (event.getType()){
             case "OneSpeakerEvent":
-                for (String user : usersManager.getAllUsers()) {
-                    if (this.usersManager.fetchType(user).equals("Speaker") && user.equals(event.getSpeakers().get(0))) {
-                        speakerName = usersManager.fetchUser(user).getUsername();
-                    }
+                for (String user : this.registeredSpeakers()) {
+                    speakerName = usersManager.fetchUser(user).getUsername();
                 }
                 break;
             case "MultiSpeakerEvent":
                 int i = 0;
-                for (String user : usersManager.getAllUsers()){
-                    if(this.usersManager.fetchType(user).equals("Speaker") && event.getSpeakers().contains(user)){
-                        speakerName = speakerName + "\n " + i + ". " + usersManager.fetchUser(user).getUsername();
-                        i ++;
-                    }
+                for (String user : this.registeredSpeakers()){
+                    speakerName = speakerName + "\n " + i + ". " + usersManager.fetchUser(user).getUsername();
+                    i ++;
                 }
                 break;
         }
@@ -230,28 +343,35 @@ public class EventInfoManager {
 
     public ArrayList<String> listOfSpeakersOfEvent(){
         ArrayList<String> speakerNames = new ArrayList<>();
-        if (event.getSpeakers().size() == 0){
+        if (event.getSpeakerCount() == 0){
             return speakerNames;
         }
         switch (event.getType()){
             case "OneSpeakerEvent":
-                for (String user : usersManager.getAllUsers()) {
-                    if (this.usersManager.fetchType(user).equals("Speaker") && user.equals(event.getSpeakers().get(0))) {
-                        speakerNames.add(usersManager.fetchUser(user).getUsername());
-                    }
-                }
-                break;
             case "MultiSpeakerEvent":
-                for (String user : usersManager.getAllUsers()){
-                    if(this.usersManager.fetchType(user).equals("Speaker") && event.getSpeakers().contains(user)){
-                        speakerNames.add(usersManager.fetchUser(user).getUsername());
-                    }
+                for (String user : this.registeredSpeakers()) {
+                    speakerNames.add(usersManager.fetchUser(user).getUsername());
                 }
                 break;
         }
         return speakerNames;
     }
 
+    /**
+     * The speakers of the event that are still registered as speakers, found through the speakers of the event
+     * rather than by going through every user
+     */
+    private List<String> registeredSpeakers() {
+        Set<String> speakers = usersManager.getUsersOfType("Speaker");
+        List<String> registered = new ArrayList<>();
+        for (String user : event.getSpeakerSet()) {
+            if (speakers.contains(user)) {
+                registered.add(user);
+            }
+        }
+        return registered;
+    }
+
     /**
      * Get Users for a particular Event
      *
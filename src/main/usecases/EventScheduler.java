@@ -33,6 +33,8 @@ public class EventScheduler {
 
     /**
      * Return true iff the input time and duration of an Event is conflict with the scheduled event.
+     * The two events conflict iff their time spans overlap; one may start at the minute the other one ends.
+     * When both start in the same hour, the new event conflicts only if it overlaps, whichever of the two starts first.
      * @author Zewen Ma
      * @param event that already scheduled
      * @param time of the newly input event
@@ -40,47 +42,38 @@ public class EventScheduler {
      * @return true when there is a conflict
      */
     public boolean checkConflictTime(Event event, LocalDateTime time, int duration){
-        LocalDateTime eventTime = event.getTime();
-        int eventDuration = event.getDuration(); // duration of the event
-        int eventStartHour = event.getTime().getHour(); // StartHour of the event
-        int eventStartMin = event.getTime().getMinute(); // StartMin of the event
-        int newTimeHour = time.getHour(); // StartHour of the new time
-        int newTimeMin = time.getMinute(); // StartMin of the new time
-        Map<String, Integer> eventEndTime = this.getEndTime(eventTime, eventDuration); // get the end time of the event
-        int eventHour = eventEndTime.get("hour"); // end hour of the event
-        int eventMin = eventEndTime.get("minute"); // end min of the event
-        Map<String, Integer> inputEndTime = this.getEndTime(time, duration);
-        int inputHour = inputEndTime.get("hour"); // end hour of the input time
-        int inputMin = inputEndTime.get("minute"); // end min of the input time
-        if (eventStartHour == newTimeHour){ // if both start time are the same hour, compare end time
-            if (eventHour <= newTimeHour){ // if event end hour <= new time start hour (cannot < but just in case)
-                return !(eventMin <= newTimeMin); // No conflict if eventMin <= newTimeMin
-            }
-            return true;
-        }
-        else if (eventStartHour < newTimeHour){
-            if (eventHour == newTimeHour){
-                return !(eventMin <= newTimeMin); // No conflict if eventMin <= newTimeMin
-            }
-            else if (eventHour < newTimeHour){
-                return false;
-            }
-            return true;
-        }
-        else{
-            if (inputHour == eventStartHour){
-                return !(inputMin <= eventStartMin);
-            }
-            else if (inputHour < eventStartHour) {
-                return false;
-            }
-            return true;
-        }
+        long start = Event.toEpochMinute(time);
+        return this.checkConflictTime(event.getStartMinute(), event.getEndMinute(), start, start + duration);
+    }
+
+    /**
+     * Return true iff the time span [start1, end1) overlaps the time span [start2, end2).
+     * An event may start at the minute another one ends.
+     * @param start1 start of the first event, in minutes
+     * @param end1 end of the first event, in minutes
+     * @param start2 start of the second event, in minutes
+     * @param end2 end of the second event, in minutes
+     * @return true when there is a conflict
+     */
+    public boolean checkConflictTime(long start1, long end1, long start2, long end2){
+        return start1 < end2 && start2 < end1;
     }
 
+    /**
+     * Return true iff an event starting at the given minute does not start at or after 9A.M. and end before
+     * 6P.M. on the same day.
+     * @param start of the event, in minutes since 1970-01-01T00:00
+     * @param duration of the event
+     * @return true iff the event is outside of the opening hours
+     */
+    public boolean isOutsideOpeningHours(long start, int duration){
+        long minuteOfDay = Math.floorMod(start, 1440L);
+        return (minuteOfDay < 9 * 60) || (minuteOfDay + duration >= 18 * 60);
+    }
 
     /**
      * Return A map whose key are "hour" and "min", representing the hour and min of the end time of the event.
+     * Only kept for display purposes, the scheduling checks work on minutes (see Event.getEndMinute).
      * @author Zewen Ma
      * @param time of the event
      * @param duration of the event
@@ -108,8 +101,11 @@ public class EventScheduler {
      * @return true if they contains the same speaker(s).
      */
     public boolean checkConflictSpeaker(Event e1, Event e2){
-        for (String speaker: e1.getSpeakers()){
-            if (e2.getSpeakers().contains(speaker)){
+        if (e1.getSpeakerCount() == 0 || e2.getSpeakerCount() == 0){
+            return false;
+        }
+        for (String speaker: e1.getSpeakerArray()){
+            if (e2.hasSpeaker(speaker)){
                 return true;
             }
         }
@@ -127,26 +123,97 @@ public class EventScheduler {
      * event.
      */
     public boolean isConflict(Map<String, Event> schedule, Event event, LocalDateTime t, String r, int d){
-        Map<String, Integer> inputTime = this.getEndTime(t, d);
-        int inputTimeHour = inputTime.get("hour");
-        if ((9 > t.getHour()) || (inputTimeHour > 17)) {
+        long start = Event.toEpochMinute(t);
+        if (this.isOutsideOpeningHours(start, d)) {
             return true;
         }
-        for (String id : schedule.keySet()) {
-            Event e = schedule.get(id);
+        long end = start + d;
+        for (Event e : schedule.values()) {
             if (e.getId().equals(event.getId())){
                 continue;
             }
-            if (this.checkConflictDate(e, t)){
+            if (this.checkConflictTime(e.getStartMinute(), e.getEndMinute(), start, end)){
                 //time conflict at same room
-                if ((this.checkConflictTime(e, t, d)) && (e.getRoomID().equals(r))) {
+                if (e.getRoomID().equals(r)) {
                     return true;
                 }//speaker conflict at same time
-                else if ((this.checkConflictTime(e, t, d))  && (this.checkConflictSpeaker(e, event))) {
+                else if (this.checkConflictSpeaker(e, event)) {
                     return true;
                 }
             }
         }
         return false;
     }
+
+    /**
+     * Return true iff there exists a conflict, looking only at the Events indexed under the room and the speakers
+     * of the want-to-add event instead of the whole schedule.
+     * @param index of the scheduled events by room and by speaker.
+     * @param event that already scheduled.
+     * @param t time of the want-to-add event.
+     * @param r roomId of the want-to-add event.
+     * @param d duration of the want-to-add event.
+     * @return true iff the t,r,d of the want-to-add event has time and room/speaker conflicts with the pre-scheduled
+     * event.
+     */
+    public boolean isConflict(ScheduleIndex index, Event event, LocalDateTime t, String r, int d){
+        return this.isConflict(index, event, Event.toEpochMinute(t), r, d);
+    }
+
+    /**
+     * Return true iff there exists a conflict, with the time of the want-to-add event given in minutes.
+     * @param index of the scheduled events by room and by speaker.
+     * @param event that already scheduled.
+     * @param start time of the want-to-add event, in minutes since 1970-01-01T00:00.
+     * @param r roomId of the want-to-add event.
+     * @param d duration of the want-to-add event.
+     * @return true iff the want-to-add event has time and room/speaker conflicts with the pre-scheduled event.
+     */
+    public boolean isConflict(ScheduleIndex index, Event event, long start, String r, int d){
+        if (this.isOutsideOpeningHours(start, d)) {
+            return true;
+        }
+        long end = start + d;
+        //time conflict at same room
+        if (index.isRoomOccupied(r, start, end, event.getId())){
+            return true;
+        }
+        //speaker conflict at same time
+        String eventId = event.getId();
+        for (String speaker : event.getSpeakerArray()) {
+            if (index.isSpeakerBusy(speaker, start, end, eventId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return true iff the speaker already speaks at another event at the time of the given event.
+     * @param index of the scheduled events by room and by speaker.
+     * @param event the speaker is going to be added to.
+     * @param speakerId of the speaker.
+     * @return true iff the speaker is busy during the event.
+     */
+    public boolean isSpeakerConflict(ScheduleIndex index, Event event, String speakerId){
+        return index.isSpeakerBusy(speakerId, event.getStartMinute(), event.getEndMinute(), event.getId());
+    }
+
+    /**
+     * Return true iff the speaker already speaks at another event at the time of the given event.
+     * @param schedule that contains all scheduled events.
+     * @param event the speaker is going to be added to.
+     * @param speakerId of the speaker.
+     * @return true iff the speaker is busy during the event.
+     */
+    public boolean isSpeakerConflict(Map<String, Event> schedule, Event event, String speakerId){
+        for (Event e : schedule.values()) {
+            if (!e.getId().equals(event.getId()) && e.hasSpeaker(speakerId)
+                    && this.checkConflictTime(e.getStartMinute(), e.getEndMinute(),
+                    event.getStartMinute(), event.getEndMinute())){
+                return true;
+            }
+        }
+        return false;
+    }
 }
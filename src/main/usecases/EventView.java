@@ -0,0 +1,112 @@
+package main.usecases;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What screens show of an Event, with its room number and speaker names already looked up.
+ * It is read-only: EventsManager keeps one per Event and replaces it once the Event, its room or its speakers change.
+ */
+public class EventView {
+
+    private final String id;
+    private final String title;
+    private final LocalDateTime time;
+    private final int roomNum;
+    private final List<String> speakerNames;
+    private final int duration;
+    private final int capacity;
+    private final int seatsLeft;
+    private final String type;
+    private final String text;
+    private final long usersVersion;
+    private final long roomsVersion;
+
+    /**
+     * @param id           of the event
+     * @param title        of the event
+     * @param time         of the event
+     * @param roomNum      of the room of the event, -1 if there is no such room
+     * @param speakerNames usernames of the registered speakers of the event
+     * @param duration     of the event in minutes
+     * @param capacity     of the event
+     * @param seatsLeft    of the event
+     * @param type         of the event
+     * @param text         describing the event, as EventInfoManager.toString does
+     * @param usersVersion of the UsersManager before the speakers were looked up
+     * @param roomsVersion of the RoomManager before the room was looked up
+     */
+    EventView(String id, String title, LocalDateTime time, int roomNum, List<String> speakerNames, int duration,
+              int capacity, int seatsLeft, String type, String text, long usersVersion, long roomsVersion) {
+        this.id = id;
+        this.title = title;
+        this.time = time;
+        this.roomNum = roomNum;
+        this.speakerNames = Collections.unmodifiableList(speakerNames);
+        this.duration = duration;
+        this.capacity = capacity;
+        this.seatsLeft = seatsLeft;
+        this.type = type;
+        this.text = text;
+        this.usersVersion = usersVersion;
+        this.roomsVersion = roomsVersion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public int getRoomNum() {
+        return roomNum;
+    }
+
+    public List<String> getSpeakerNames() {
+        return speakerNames;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSeatsLeft() {
+        return seatsLeft;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Whether the looked up room number and speakers still hold. Changes to the Event itself are taken care of by
+     * EventsManager; this catches users or rooms being added, removed or loaded since the view was made, by
+     * comparing versions instead of looking them up again.
+     *
+     * @param usersManager holding the registered speakers
+     * @param roomManager  holding the room of the event
+     * @return false iff the view has to be made again
+     */
+    boolean isCurrent(UsersManager usersManager, RoomManager roomManager) {
+        return usersVersion == usersManager.getVersion() && roomsVersion == roomManager.getVersion();
+    }
+
+    /**
+     * @return the details of the event, as EventInfoManager.toString describes them
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -2,15 +2,19 @@ package main.usecases;
 
 import main.entities.Event;
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * The EventsManager holds a list of Events, and modify Event with its corresponding Users.
+ * It is thread-safe: sign ups hold the read side of its lock, so many can go on at once, while changes to the
+ * schedule itself hold the write side. Events are looked up by id without locking; the order of the schedule is
+ * kept in a list of ids, which readers that need stable positions take a copy of.
  *
  * @author Haoze Huang, Zewen Ma
  * @version 4.0
@@ -19,10 +23,22 @@ import java.util.Map;
 
 public class EventsManager {
 
-    private Map<String, Event> schedule;
+    private final Map<String, Event> schedule; // changed under the write lock, read without locking
+    private final List<String> eventIds; // ids of the schedule in order, changed under the write lock
+    private final ScheduleIndex scheduleIndex; // changed under the write lock, read under either
+    private final Map<String, Set<String>> attendeeIndex; // userId -> ids of the events the user signed up for
+    private final ChangeTracker changes;
+    private final ReadWriteLock lock;
+    private final Map<String, EventView> views; // eventId -> EventView, dropped whenever the event changes
 
     public EventsManager() {
-        this.schedule = new LinkedHashMap<>();
+        this.schedule = new ConcurrentHashMap<>();
+        this.eventIds = new ArrayList<>();
+        this.scheduleIndex = new ScheduleIndex();
+        this.attendeeIndex = new ConcurrentHashMap<>();
+        this.changes = new ChangeTracker();
+        this.lock = new ReentrantReadWriteLock();
+        this.views = new ConcurrentHashMap<>();
     }
 
     /**
@@ -41,15 +57,23 @@ public class EventsManager {
         int duration = newEvent.getDuration();
         int newCapacity = newEvent.getCapacity();
         EventScheduler scheduler = new EventScheduler();
-        if (scheduler.isConflict(schedule, newEvent, time, newRoomId, duration)){
-            return false;
+        lock.writeLock().lock();
+        try {
+            if (scheduler.isConflict(scheduleIndex, newEvent, time, newRoomId, duration)){
+                return false;
+            }
+            newEvent.setTime(time);
+            newEvent.setRoomID(newRoomId);
+            newEvent.setDuration(duration);
+            newEvent.setCapacity(newCapacity);
+            schedule.put(newEvent.getId(), newEvent);
+            eventIds.add(newEvent.getId());
+            scheduleIndex.add(newEvent);
+            changes.markChanged(newEvent.getId());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
-        newEvent.setTime(time);
-        newEvent.setRoomID(newRoomId);
-        newEvent.setDuration(duration);
-        newEvent.setCapacity(newCapacity);
-        schedule.put(newEvent.getId(), newEvent);
-        return true;
 
     }
 
@@ -62,11 +86,23 @@ public class EventsManager {
      * @return check for successful removal
      */
     public boolean removeEvent(String canceledEventId) {
-        if (schedule.containsKey(canceledEventId)) {
-            schedule.remove(canceledEventId);
-            return true;
+        lock.writeLock().lock();
+        try {
+            Event canceledEvent = schedule.remove(canceledEventId);
+            if (canceledEvent != null) {
+                eventIds.remove(canceledEventId);
+                scheduleIndex.remove(canceledEvent);
+                for (String userId : canceledEvent.getAttendeeSet()) {
+                    unindexAttendee(userId, canceledEventId);
+                }
+                changes.markRemoved(canceledEventId);
+                views.remove(canceledEventId);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
 
@@ -77,18 +113,76 @@ public class EventsManager {
      * @return userEvents
      */
     public ArrayList<String> getUserEvents(String userId) {
+        Set<String> userEvents = attendeeIndex.get(userId);
+        if (userEvents == null) {
+            return new ArrayList<>();
+        }
+        synchronized (userEvents) {
+            return new ArrayList<>(userEvents);
+        }
+    }
 
-        ArrayList<String> userEvents = new ArrayList<>();
-        for (String eventId : schedule.keySet()) {
-            EventInfoManager eventInfoManager = new EventInfoManager(eventId, schedule);
-            List<String> users = eventInfoManager.getUsers();
-            for (String user : users) {
-                if (user.equals(userId)) {
-                    userEvents.add(eventId);
-                }
+    /**
+     * Record that a User signed up for an Event, called by EventInfoManager.addUser
+     *
+     * @param userId  of the User
+     * @param eventId of the Event
+     */
+    void indexAttendee(String userId, String eventId) {
+        attendeeIndex.compute(userId, (k, userEvents) -> {
+            if (userEvents == null) {
+                userEvents = Collections.synchronizedSet(new LinkedHashSet<>());
             }
+            userEvents.add(eventId);
+            return userEvents;
+        });
+        this.markChanged(eventId);
+    }
+
+    /**
+     * Record that a User is no longer in an Event, called by EventInfoManager.removeUser
+     *
+     * @param userId  of the User
+     * @param eventId of the Event
+     */
+    void unindexAttendee(String userId, String eventId) {
+        attendeeIndex.computeIfPresent(userId, (k, userEvents) -> {
+            userEvents.remove(eventId);
+            return userEvents.isEmpty() ? null : userEvents;
+        });
+        this.markChanged(eventId);
+    }
+
+    /**
+     * Record that an Event was changed and has to be saved again, called by EventInfoManager
+     *
+     * @param eventId of the Event
+     */
+    void markChanged(String eventId) {
+        changes.markChanged(eventId);
+        // dropped after the change is made, so that a view made from the old event while it changed is dropped too
+        views.remove(eventId);
+    }
+
+    /**
+     * Return the EventView of an Event, made the first time it is asked for and kept until the Event changes
+     *
+     * @param eventId      of the Event
+     * @param roomManager  to look up the room number
+     * @param usersManager to look up the speaker names
+     * @return the EventView, or null if there is no such Event
+     */
+    public EventView getEventView(String eventId, RoomManager roomManager, UsersManager usersManager) {
+        EventView view = views.get(eventId);
+        if (view != null && view.isCurrent(usersManager, roomManager)) {
+            return view;
         }
-        return userEvents;
+        return views.compute(eventId, (id, cached) -> {
+            if (cached != null && cached != view && cached.isCurrent(usersManager, roomManager)) {
+                return cached;
+            }
+            return schedule.containsKey(id) ? new EventInfoManager(id, schedule, roomManager, usersManager).toView() : null;
+        });
     }
 
     /**
@@ -99,32 +193,23 @@ public class EventsManager {
      */
     public List<Event> getUserEventsObj(String userId) {
 
-        List<Event> userEvents = new ArrayList<>();
-        for (String eventId : schedule.keySet()) {
-            userEvents.add(this.schedule.get(eventId));
-        }
-        return userEvents;
+        return this.getEvents();
     }
 
 
     /**
-     * Get the list of events for a Speaker given id
+     * Get the list of events for a Speaker given id, ordered by their start time
      * Modified by Zewen Ma on 2020.11.30
      * @param speakerId to be get events from
      * @return speakerEvents
      */
     public ArrayList<String> getSpeakerEvents(String speakerId) {
-        ArrayList<String> speakerEvents = new ArrayList<>();
-        for (String eventId : schedule.keySet()) {
-            Event event = schedule.get(eventId);
-            if (!event.getType().equals("NoSpeakerEvent")){
-                ArrayList<String> speakers = event.getSpeakers();
-                if (speakers.contains(speakerId)){
-                    speakerEvents.add(schedule.get(eventId).getId());
-                }
-            }
+        lock.readLock().lock();
+        try {
+            return scheduleIndex.getSpeakerEventIds(speakerId);
+        } finally {
+            lock.readLock().unlock();
         }
-        return speakerEvents;
     }
 
 
@@ -135,8 +220,11 @@ public class EventsManager {
      */
     public ArrayList<Event> getEvents() {
         ArrayList<Event> events = new ArrayList<>();
-        for (String i : schedule.keySet()) {
-            events.add(schedule.get(i));
+        for (String i : this.getEventIds()) {
+            Event event = schedule.get(i);
+            if (event != null) {
+                events.add(event);
+            }
         }
         return events;
     }
@@ -144,12 +232,73 @@ public class EventsManager {
 
 
     /**
-     * A getter of the schedule stored in EventsManager.
+     * A getter of the schedule stored in EventsManager, to look Events up by id.
+     * It is a read-only view that follows the schedule as it changes and is iterated in no particular order;
+     * use getEventIds for the order of the schedule.
      *
      * @return the schedule of EventsManager
      */
     public Map<String, Event> getSchedule() {
-        return schedule;
+        return Collections.unmodifiableMap(schedule);
+    }
+
+    /**
+     * The ids of the scheduled events, in the order of the schedule. The list is a copy, so a position in it keeps
+     * naming the same event while the schedule changes.
+     *
+     * @return the ids of the events
+     */
+    public List<String> getEventIds() {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(eventIds));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The ids of a page of the scheduled events, in the order of the schedule
+     *
+     * @param from  position in the schedule of the first event of the page
+     * @param count the most events on the page
+     * @return the ids of the events on the page, empty past the end of the schedule
+     */
+    public List<String> getEventIds(int from, int count) {
+        lock.readLock().lock();
+        try {
+            int to = (int) Math.min((long) from + count, eventIds.size());
+            return new ArrayList<>(eventIds.subList(Math.min(Math.max(from, 0), to), to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of scheduled events
+     */
+    public int countEvents() {
+        return schedule.size();
+    }
+
+    /**
+     * A getter of the room and speaker index of the schedule, for EventInfoManager to keep it up to date.
+     * It may only be changed while holding the write lock, and read while holding either side of it.
+     *
+     * @return the ScheduleIndex of EventsManager
+     */
+    ScheduleIndex getScheduleIndex() {
+        return scheduleIndex;
+    }
+
+    /**
+     * A getter of the lock of EventsManager, for EventInfoManager. Sign ups hold its read side, anything else that
+     * changes the schedule, its rooms or its speakers holds its write side.
+     *
+     * @return the lock of EventsManager
+     */
+    ReadWriteLock getLock() {
+        return lock;
     }
 
     /**
@@ -157,10 +306,39 @@ public class EventsManager {
      *
      * @param gateway Gateway
      */
-    public void saveEventsToGateway(Gateway gateway) {
+    public void saveEventsToGateway(GatewayWriter gateway) {
+        ChangeTracker saved = changes.drain();
+        try {
+            gateway.saveEvents(this.getEvents());
+        } catch (RuntimeException e) {
+            changes.restore(saved);
+            throw e;
+        }
+    }
+
+    /**
+     * Save only the events added, changed or removed since the last load or save to the gateway
+     *
+     * @param gateway Gateway
+     */
+    public void saveEventChangesToGateway(GatewayWriter gateway) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ChangeTracker saved = changes.drain();
         List<Event> events = new ArrayList<>();
-        events.addAll(this.schedule.values());
-        gateway.saveEvents(events);
+        for (String eventId : saved.getChanged()) {
+            Event event = schedule.get(eventId);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        try {
+            gateway.saveEventChanges(events, saved.getRemoved());
+        } catch (RuntimeException e) {
+            changes.restore(saved);
+            throw e;
+        }
     }
 
     /**
@@ -169,10 +347,27 @@ public class EventsManager {
      * @param gateway Gateway
      */
     public void loadEventsFromGateway(Gateway gateway) {
-        this.schedule = new LinkedHashMap<>();
         List<Event> events = gateway.loadEvents();
-        for (Event event : events) {
-            this.schedule.put(event.getId(), event);
+        lock.writeLock().lock();
+        try {
+            this.schedule.clear();
+            this.eventIds.clear();
+            this.scheduleIndex.clear();
+            this.attendeeIndex.clear();
+            for (Event event : events) {
+                event.clearMemberChanges();
+                if (this.schedule.put(event.getId(), event) == null) {
+                    this.eventIds.add(event.getId());
+                }
+                this.scheduleIndex.add(event);
+                for (String userId : event.getAttendeeSet()) {
+                    this.indexAttendee(userId, event.getId());
+                }
+            }
+            this.changes.clear();
+            this.views.clear();
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 }
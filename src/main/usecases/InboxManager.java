@@ -2,17 +2,28 @@ package main.usecases;
 
 import main.entities.Inbox;
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
+import main.gateways.MessageRepository;
 
 import java.util.*;
 
 /**
  * InboxManager handles the retrieving and management of Inboxes
+ * It is thread-safe: every method holds the lock of the InboxManager, which also guards the Inboxes themselves.
  *
  * @author David Zhao
  */
 public class InboxManager {
 
+    // keyed by the id of the User owning the Inbox
     private Map<String, Inbox> inboxes;
+    // Inbox id -> id of the User owning it, to find the changed Inboxes in inboxes
+    private Map<String, String> usersByInboxId;
+    // tracked by Inbox id, which is what the Gateway stores them under
+    private final ChangeTracker changes = new ChangeTracker();
+    // when set, inboxes only caches the Inboxes of the users looked up so far
+    private MessageRepository repository;
+    private Set<String> lookedUpUsers = new HashSet<>();
 
     /**
      * No-arg constructor
@@ -20,6 +31,7 @@ public class InboxManager {
     public InboxManager() {
 
         this.inboxes = new HashMap<>();
+        this.usersByInboxId = new HashMap<>();
     }
 
     /**
@@ -27,9 +39,11 @@ public class InboxManager {
      *
      * @param userId ID of User
      */
-    public void createInboxForUser(String userId) {
+    public synchronized void createInboxForUser(String userId) {
         Inbox newInbox = new Inbox(userId);
         this.inboxes.put(userId, newInbox);
+        this.usersByInboxId.put(newInbox.getId(), userId);
+        this.changes.markChanged(newInbox.getId());
     }
 
 
@@ -39,16 +53,12 @@ public class InboxManager {
      * @param userId ID of User
      * @return List of Message IDs
      */
-    public List<String> getMessagesOfUser(String userId) {
-        List<String> allMessages = new ArrayList<>();
-        for (Inbox x : inboxes.values()) {
-            if (userId.equals(x.getUser())) {
-//                return x.getMessages();
-                allMessages.addAll(x.getMessages());
-                }
-            }
-//        return new LinkedList<>();
-        return allMessages;
+    public synchronized List<String> getMessagesOfUser(String userId) {
+        Inbox box = this.getInbox(userId);
+        if (box == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(box.getMessages());
     }
 
     /**
@@ -57,37 +67,145 @@ public class InboxManager {
      * @param message  ID of Message
      * @param receiver ID of User receiving the message
      */
-    public void putMessageInToInbox(String message, String receiver) {
+    public synchronized void putMessageInToInbox(String message, String receiver) {
 
-        Inbox box = this.inboxes.get(receiver);
+        Inbox box = this.getInbox(receiver);
         if (box == null) {
             this.createInboxForUser(receiver);
             this.putMessageInToInbox(message, receiver);
             return;
         }
         box.addMessage(message);
+        this.changes.markChanged(box.getId());
+    }
 
+    /**
+     * Inserts the same message into the inboxes of several Users. The inboxes only hold the ID of the message,
+     * so it is stored once however many Users receive it.
+     *
+     * @param message   ID of Message
+     * @param receivers IDs of Users receiving the message, each of whom gets it once
+     */
+    public synchronized void putMessageInToInboxes(String message, Collection<String> receivers) {
+        Set<String> uniqueReceivers = new LinkedHashSet<>(receivers);
+        this.lookUpInboxes(uniqueReceivers);
+        for (String receiver : uniqueReceivers) {
+            this.putMessageInToInbox(message, receiver);
+        }
     }
 
     /**
      * Saves Inbox to Gateway
      * @param gateway an implementation of Gateway
      */
-    public void saveToGateway(Gateway gateway) {
+    public synchronized void saveToGateway(GatewayWriter gateway) {
+        if (this.repository != null) {
+            // only the looked up Inboxes are in memory, the rest are already stored
+            this.saveChangesToGateway(gateway);
+            return;
+        }
         List<Inbox> inboxes = new ArrayList<>();
         inboxes.addAll(this.inboxes.values());
         gateway.saveInboxes(inboxes);
+        this.changes.clear();
     }
 
     /**
-     * Loads Inboxes from Gateway
+     * Saves only the Inboxes changed since the last load or save to Gateway
      * @param gateway an implementation of Gateway
      */
-    public void loadFromGateway(Gateway gateway) {
+    public synchronized void saveChangesToGateway(GatewayWriter gateway) {
+        if (this.changes.isEmpty()) {
+            return;
+        }
+        List<Inbox> inboxes = new ArrayList<>();
+        for (String inboxId : this.changes.getChanged()) {
+            Inbox inbox = this.inboxes.get(this.usersByInboxId.get(inboxId));
+            if (inbox != null && inbox.getId().equals(inboxId)) {
+                inboxes.add(inbox);
+            }
+        }
+        gateway.saveInboxChanges(inboxes, this.changes.getRemoved());
+        this.changes.clear();
+    }
+
+    /**
+     * Loads Inboxes from Gateway, keyed by their User.
+     * Several stored Inboxes of the same User are merged into the first one.
+     * @param gateway an implementation of Gateway
+     */
+    public synchronized void loadFromGateway(Gateway gateway) {
+        this.repository = null;
         this.inboxes = new HashMap<>();
+        this.usersByInboxId = new HashMap<>();
+        this.changes.clear();
         List<Inbox> newInboxes = gateway.loadInboxes();
         for (Inbox inbox : newInboxes) {
-            this.inboxes.put(inbox.getId(), inbox);
+            this.addLoadedInbox(inbox);
+        }
+    }
+
+    /**
+     * Looks up the Inbox of a user in a repository when it is first needed instead of loading them all up front
+     * @param repository where the Inboxes are stored
+     */
+    public synchronized void useRepository(MessageRepository repository) {
+        this.repository = repository;
+        this.inboxes = new HashMap<>();
+        this.usersByInboxId = new HashMap<>();
+        this.lookedUpUsers = new HashSet<>();
+        this.changes.clear();
+    }
+
+    private Inbox getInbox(String userId) {
+        if (this.repository != null && this.lookedUpUsers.add(userId)) {
+            for (Inbox inbox : this.repository.findInboxesOfUser(userId)) {
+                this.addLoadedInbox(inbox);
+            }
+        }
+        return this.inboxes.get(userId);
+    }
+
+    /**
+     * Looks up the Inboxes of the given users not looked up yet in one query, so getInbox needs none for them
+     * @param userIds IDs of the users
+     */
+    private void lookUpInboxes(Collection<String> userIds) {
+        if (this.repository == null) {
+            return;
+        }
+        List<String> notLookedUp = new ArrayList<>();
+        for (String userId : userIds) {
+            if (this.lookedUpUsers.add(userId)) {
+                notLookedUp.add(userId);
+            }
+        }
+        if (notLookedUp.isEmpty()) {
+            return;
+        }
+        for (Inbox inbox : this.repository.findInboxesOfUsers(notLookedUp)) {
+            this.addLoadedInbox(inbox);
+        }
+    }
+
+    /**
+     * Keys a stored Inbox by its User.
+     * Several stored Inboxes of the same User are merged into the first one.
+     * @param inbox that was loaded
+     */
+    private void addLoadedInbox(Inbox inbox) {
+        Inbox box = this.inboxes.putIfAbsent(inbox.getUser(), inbox);
+        if (box == null) {
+            this.usersByInboxId.put(inbox.getId(), inbox.getUser());
+        } else {
+            for (String message : inbox.getMessages()) {
+                box.addMessage(message);
+            }
+            // the next save keeps the merged Inbox only
+            if (!box.getId().equals(inbox.getId())) {
+                this.changes.markRemoved(inbox.getId());
+            }
+            this.changes.markChanged(box.getId());
         }
     }
 }
@@ -2,16 +2,17 @@ package main.usecases;
 
 import main.entities.Message;
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
+import main.gateways.MessageRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <code>MessageManager</code> stores all the messages and assigns an ID to
  * each <code>Message</code>
+ * It is thread-safe.
  *
  * @author Steven Yuan, David Zhao
  * @version 2.0
@@ -19,13 +20,16 @@ import java.util.Map;
  */
 public class MessageManager {
 
-    private Map<String, Message> messageList;
+    private final Map<String, Message> messageList;
+    private final ChangeTracker changes = new ChangeTracker();
+    // when set, messageList only caches the Messages looked up so far
+    private volatile MessageRepository repository;
 
     /**
      * Default constructor that instantiates a <code>MessageManager</code> object
      */
     public MessageManager() {
-        this.messageList = new HashMap<>();
+        this.messageList = new ConcurrentHashMap<>();
     }
 
     /**
@@ -39,6 +43,7 @@ public class MessageManager {
         Message newMessage = new Message(text, sender);
         String newMessageId = newMessage.getId();
         this.messageList.put(newMessageId, newMessage);
+        this.changes.markChanged(newMessageId);
         return newMessageId;
     }
 
@@ -49,7 +54,7 @@ public class MessageManager {
      * @return The content of the message
      */
     public String retrieveMessageText(String messageId) {
-        Message message = this.messageList.get(messageId);
+        Message message = this.getMessage(messageId);
         return message.getText();
     }
 
@@ -60,7 +65,7 @@ public class MessageManager {
      * @return date of the message
      */
     public LocalDateTime retrieveMessageDate(String messageId) {
-        Message message = this.messageList.get(messageId);
+        Message message = this.getMessage(messageId);
         return message.getDate();
     }
 
@@ -71,19 +76,87 @@ public class MessageManager {
      * @return the ID of the sender
      */
     public String retrieveMessageSender(String messageId) {
-        Message message = this.messageList.get(messageId);
+        Message message = this.getMessage(messageId);
         return message.getSender();
     }
 
+    /**
+     * Looks up the given messages in the repository at once, instead of one at a time when they are retrieved
+     *
+     * @param messageIds IDs of the messages about to be retrieved
+     */
+    public void prefetchMessages(Collection<String> messageIds) {
+        MessageRepository repository = this.repository;
+        if (repository == null) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (String messageId : messageIds) {
+            if (!this.messageList.containsKey(messageId)) {
+                missing.add(messageId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Message message : repository.findMessages(missing)) {
+                this.messageList.put(message.getId(), message);
+            }
+        }
+    }
+
+    private Message getMessage(String messageId) {
+        Message message = this.messageList.get(messageId);
+        MessageRepository repository = this.repository;
+        if (message == null && repository != null) {
+            message = repository.findMessage(messageId);
+            if (message != null) {
+                this.messageList.put(messageId, message);
+            }
+        }
+        return message;
+    }
+
     /**
      * Saves current store of Message to gateway
      *
      * @param gateway An implementation of the Gateway interface
      */
-    public void saveMessagesToGateway(Gateway gateway) {
+    public void saveMessagesToGateway(GatewayWriter gateway) {
+        if (this.repository != null) {
+            // only the looked up Messages are in memory, the rest are already stored
+            this.saveMessageChangesToGateway(gateway);
+            return;
+        }
+        ChangeTracker saved = this.changes.drain();
         List<Message> messages = new ArrayList<>();
         messages.addAll(this.messageList.values());
-        gateway.saveMessages(messages);
+        try {
+            gateway.saveMessages(messages);
+        } catch (RuntimeException e) {
+            this.changes.restore(saved);
+            throw e;
+        }
+    }
+
+    /**
+     * Saves only the Messages created since the last load or save to gateway
+     *
+     * @param gateway An implementation of the Gateway interface
+     */
+    public void saveMessageChangesToGateway(GatewayWriter gateway) {
+        if (this.changes.isEmpty()) {
+            return;
+        }
+        ChangeTracker saved = this.changes.drain();
+        List<Message> messages = new ArrayList<>();
+        for (String messageId : saved.getChanged()) {
+            messages.add(this.messageList.get(messageId));
+        }
+        try {
+            gateway.saveMessageChanges(messages, saved.getRemoved());
+        } catch (RuntimeException e) {
+            this.changes.restore(saved);
+            throw e;
+        }
     }
 
     /**
@@ -92,12 +165,23 @@ public class MessageManager {
      * @param gateway An implementation of the Gateway interface
      */
     public void loadMessagesFromGateway(Gateway gateway) {
-        this.messageList = new HashMap<>();
+        this.repository = null;
+        this.messageList.clear();
         List<Message> messages = gateway.loadMessages();
         for (Message message : messages) {
             this.messageList.put(message.getId(), message);
         }
+        this.changes.clear();
     }
 
-
+    /**
+     * Looks up Messages in a repository when they are first retrieved instead of loading them all up front
+     *
+     * @param repository where the Messages are stored
+     */
+    public void useRepository(MessageRepository repository) {
+        this.repository = repository;
+        this.messageList.clear();
+        this.changes.clear();
+    }
 }
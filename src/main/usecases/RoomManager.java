@@ -2,11 +2,13 @@ package main.usecases;
 
 import main.entities.Room;
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
 
 import java.util.*;
 
 /**
  * this class stores all rooms which could hold events
+ * It is thread-safe: rooms rarely change, so every method simply holds the lock of the RoomManager.
  *
  * @author Ruoming Ren, Yile Xie
  * @since 2020-11-13
@@ -14,9 +16,55 @@ import java.util.*;
 public class RoomManager {
 
     private Map<String, Room> rooms;
+    private Map<Integer, Room> roomsByNum;
+    // every room gets a position in roomSlots, the bitsets below mark the positions of rooms with each attribute
+    private List<Room> roomSlots;
+    private Map<String, Integer> slotsById; // roomId -> position of the room in roomSlots
+    private BitSet techRooms;
+    private BitSet tableRooms;
+    private BitSet stageRooms;
+    private final ChangeTracker changes = new ChangeTracker();
+    private volatile long version; // bumped after every room added or loaded
 
     public RoomManager() {
         this.rooms = new HashMap<>();
+        this.clearIndexes();
+    }
+
+    private void clearIndexes() {
+        this.roomsByNum = new HashMap<>();
+        this.roomSlots = new ArrayList<>();
+        this.slotsById = new HashMap<>();
+        this.techRooms = new BitSet();
+        this.tableRooms = new BitSet();
+        this.stageRooms = new BitSet();
+        this.version++;
+    }
+
+    /**
+     * Returns a number that changes whenever a room is added or the rooms are loaded, so that what was looked up
+     * from the rooms, such as an EventView, can tell it is out of date.
+     *
+     * @return the version of the rooms
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void putRoom(Room room) {
+        this.rooms.put(room.getId(), room);
+        this.roomsByNum.put(room.getRoomNum(), room);
+        this.slotsById.put(room.getId(), this.roomSlots.size());
+        this.roomSlots.add(room);
+        this.indexConstraints(room);
+        this.version++;
+    }
+
+    private void indexConstraints(Room room) {
+        int slot = this.slotsById.get(room.getId());
+        this.techRooms.set(slot, room.getHasTech());
+        this.tableRooms.set(slot, room.getIsTable());
+        this.stageRooms.set(slot, room.getHasStage());
     }
 
     /**
@@ -26,14 +74,13 @@ public class RoomManager {
      * @param capacity the new room's capacity
      * @return true if the room has been successfully created
      */
-    public boolean addRoom(int roomNum, int capacity) {
-        for (Room room : rooms.values()) {
-            if (room.getRoomNum() == roomNum) {
-                return false;
-            }
+    public synchronized boolean addRoom(int roomNum, int capacity) {
+        if (roomsByNum.containsKey(roomNum)) {
+            return false;
         }
         Room newRoom = new Room(roomNum, capacity);
-        rooms.put(newRoom.getId(), newRoom);
+        this.putRoom(newRoom);
+        changes.markChanged(newRoom.getId());
         return true;
     }
 
@@ -43,7 +90,7 @@ public class RoomManager {
      * @param roomId of the target room
      * @return the room corresponding to the given roomId
      */
-    public Room getRoomGivenId(String roomId) {
+    public synchronized Room getRoomGivenId(String roomId) {
         if (!rooms.containsKey(roomId)) {
             return null;
         } else {
@@ -51,7 +98,7 @@ public class RoomManager {
         }
     }
 
-    public int getRoomNumGivenId(String roomId) {
+    public synchronized int getRoomNumGivenId(String roomId) {
         if (getRoomGivenId(roomId) != null) {
             return getRoomGivenId(roomId).getRoomNum();
         } else {
@@ -65,11 +112,12 @@ public class RoomManager {
      * @param roomNum the roomNum of a room
      * @return the id of the room, if there doesn't exist a room with given roomNum, return null.
      */
-    public String getRoomIDGivenRoomNum(int roomNum) {
-        if (this.getRoomGivenRoomNum(roomNum) == null) {
+    public synchronized String getRoomIDGivenRoomNum(int roomNum) {
+        Room room = this.getRoomGivenRoomNum(roomNum);
+        if (room == null) {
             return null;
         } else {
-            return getRoomGivenRoomNum(roomNum).getId();
+            return room.getId();
         }
     }
 
@@ -79,14 +127,8 @@ public class RoomManager {
      * @param roomNum the roomNum of the room
      * @return the room object of the room, if there doesn't exist a room with given roomNum, return null.
      */
-    public Room getRoomGivenRoomNum(int roomNum) {
-        Room target = null;
-        for (Room room : rooms.values()) {
-            if (room.getRoomNum() == roomNum) {
-                target = room;
-            }
-        }
-        return target;
+    public synchronized Room getRoomGivenRoomNum(int roomNum) {
+        return roomsByNum.get(roomNum);
     }
 
     /**
@@ -96,7 +138,7 @@ public class RoomManager {
      * @param category room constraints
      * @return verification if there is any room constraints are modified
      */
-    public boolean addConstraintToRoom(int roomNum, ArrayList<String> category) {
+    public synchronized boolean addConstraintToRoom(int roomNum, ArrayList<String> category) {
         for (int i = 0; i < category.size(); i++){
             category.set(i,category.get(i).toLowerCase());
         }
@@ -108,18 +150,56 @@ public class RoomManager {
             room.setTech(false);
             room.setToTable(false);
             room.setStage(false);
-            return true;
+        } else {
+            if (category.contains("tech")) {
+                room.setTech(true);
+            }
+            if (category.contains("table")) {
+                room.setToTable(true);
+            }
+            if (category.contains("stage")) {
+                room.setStage(true);
+            }
         }
-        if (category.contains("tech")) {
-            room.setTech(true);
+        this.indexConstraints(room);
+        changes.markChanged(room.getId());
+        return true;
+    }
+
+    /**
+     * Return the numbers of the rooms that satisfy every given constraint
+     *
+     * @param category room constraints, potentially included ["Tech", "Table", "Stage"]
+     * @return a list of room numbers, all rooms if category is empty or contains "none"
+     */
+    public synchronized ArrayList<Integer> getRoomsWithConstraints(List<String> category) {
+        BitSet matches = new BitSet();
+        matches.set(0, roomSlots.size());
+        boolean none = category.isEmpty();
+        for (String constraint : category) {
+            switch (constraint.toLowerCase()) {
+                case "tech":
+                    matches.and(techRooms);
+                    break;
+                case "table":
+                    matches.and(tableRooms);
+                    break;
+                case "stage":
+                    matches.and(stageRooms);
+                    break;
+                case "none":
+                    none = true;
+                    break;
+            }
         }
-        if (category.contains("table")) {
-            room.setToTable(true);
+        if (none) {
+            matches.set(0, roomSlots.size());
         }
-        if (category.contains("stage")) {
-            room.setStage(true);
+        ArrayList<Integer> roomNums = new ArrayList<>();
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            roomNums.add(roomSlots.get(slot).getRoomNum());
         }
-        return true;
+        return roomNums;
     }
 
     /**
@@ -128,7 +208,7 @@ public class RoomManager {
      * @param roomNum of the room
      * @return the capacity of the room with given room number
      */
-    public int getRoomCapacityGivenRoomNum(int roomNum) {
+    public synchronized int getRoomCapacityGivenRoomNum(int roomNum) {
         return this.getRoomGivenRoomNum(roomNum).getCapacity();
     }
 
@@ -137,7 +217,7 @@ public class RoomManager {
      *
      * @return a list of rooms' number
      */
-    public List<Integer> getAllRooms() {
+    public synchronized List<Integer> getAllRooms() {
         List<Integer> allRooms = new ArrayList<>();
         for (Room room : this.rooms.values()) {
             allRooms.add(room.getRoomNum());
@@ -148,10 +228,10 @@ public class RoomManager {
     /**
      * get all rooms which inside the program
      *
-     * @return a list of rooms' objects
+     * @return a copy of the list of rooms' objects
      */
-    public Collection<Room> getAllRoomsObject() {
-        return this.rooms.values();
+    public synchronized Collection<Room> getAllRoomsObject() {
+        return new ArrayList<>(this.rooms.values());
     }
 
     /**
@@ -159,11 +239,28 @@ public class RoomManager {
      *
      * @param gateway the gateway of the program
      */
-    public void saveRoomsToGateway(Gateway gateway) {
+    public synchronized void saveRoomsToGateway(GatewayWriter gateway) {
         List<Room> roomList = new ArrayList<>();
         roomList.addAll(this.rooms.values());
         gateway.saveRooms(roomList);
+        changes.clear();
+    }
 
+    /**
+     * save only the rooms added or changed since the last load or save to the gateway.
+     *
+     * @param gateway the gateway of the program
+     */
+    public synchronized void saveRoomChangesToGateway(GatewayWriter gateway) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Room> roomList = new ArrayList<>();
+        for (String roomId : changes.getChanged()) {
+            roomList.add(this.rooms.get(roomId));
+        }
+        gateway.saveRoomChanges(roomList, changes.getRemoved());
+        changes.clear();
     }
 
     /**
@@ -171,12 +268,14 @@ public class RoomManager {
      *
      * @param gateway the gateway of the program
      */
-    public void loadRoomsFromGateway(Gateway gateway) {
+    public synchronized void loadRoomsFromGateway(Gateway gateway) {
         this.rooms = new HashMap<>();
+        this.clearIndexes();
         List<Room> loadedRooms = gateway.loadRooms();
         for (Room room : loadedRooms) {
-            this.rooms.put(room.getId(), room);
+            this.putRoom(room);
         }
+        changes.clear();
     }
 
 
@@ -0,0 +1,201 @@
+package main.usecases;
+
+import main.entities.Event;
+
+import java.util.*;
+
+/**
+ * The ScheduleIndex keeps the scheduled Events of every room and every speaker sorted by their start minute, so that
+ * a time conflict, or the events of a speaker, can be found without walking the whole schedule.
+ */
+public class ScheduleIndex {
+
+    private final Map<String, Timeline> roomIndex;
+    private final Map<String, Timeline> speakerIndex;
+
+    public ScheduleIndex() {
+        this.roomIndex = new HashMap<>();
+        this.speakerIndex = new HashMap<>();
+    }
+
+    /**
+     * Add an Event under its room and under each of its speakers.
+     *
+     * @param event that is scheduled
+     */
+    public void add(Event event) {
+        this.put(roomIndex, event.getRoomID(), event);
+        for (String speakerId : event.getSpeakerArray()) {
+            this.put(speakerIndex, speakerId, event);
+        }
+    }
+
+    /**
+     * Remove an Event from its room and from each of its speakers.
+     * Must be called before the time, room or speakers of the Event are changed.
+     *
+     * @param event that is no longer scheduled at its current time
+     */
+    public void remove(Event event) {
+        this.take(roomIndex, event.getRoomID(), event);
+        for (String speakerId : event.getSpeakerArray()) {
+            this.take(speakerIndex, speakerId, event);
+        }
+    }
+
+    /**
+     * Add an Event under a newly added speaker.
+     *
+     * @param speakerId of the speaker
+     * @param event     the speaker is added to
+     */
+    public void addSpeaker(String speakerId, Event event) {
+        this.put(speakerIndex, speakerId, event);
+    }
+
+    /**
+     * Remove an Event from a speaker who no longer speaks at it.
+     *
+     * @param speakerId of the speaker
+     * @param event     the speaker is removed from
+     */
+    public void removeSpeaker(String speakerId, Event event) {
+        this.take(speakerIndex, speakerId, event);
+    }
+
+    /**
+     * Remove every Event from the index.
+     */
+    public void clear() {
+        roomIndex.clear();
+        speakerIndex.clear();
+    }
+
+    /**
+     * Return true iff another Event in the given room overlaps the time span [start, end).
+     *
+     * @param roomId  of the room
+     * @param start   of the want-to-add event, in minutes since 1970-01-01T00:00
+     * @param end     of the want-to-add event, in minutes since 1970-01-01T00:00
+     * @param eventId of the event being checked, which never conflicts with itself
+     * @return true iff the room is occupied at that time
+     */
+    public boolean isRoomOccupied(String roomId, long start, long end, String eventId) {
+        Timeline timeline = roomIndex.get(roomId);
+        return timeline != null && timeline.overlaps(start, end, eventId);
+    }
+
+    /**
+     * Return true iff the speaker speaks at another Event that overlaps the time span [start, end).
+     *
+     * @param speakerId of the speaker
+     * @param start     of the want-to-add event, in minutes since 1970-01-01T00:00
+     * @param end       of the want-to-add event, in minutes since 1970-01-01T00:00
+     * @param eventId   of the event being checked, which never conflicts with itself
+     * @return true iff the speaker is busy at that time
+     */
+    public boolean isSpeakerBusy(String speakerId, long start, long end, String eventId) {
+        Timeline timeline = speakerIndex.get(speakerId);
+        return timeline != null && timeline.overlaps(start, end, eventId);
+    }
+
+    /**
+     * Return the ids of the Events the speaker speaks at, ordered by their start time.
+     *
+     * @param speakerId of the speaker
+     * @return a list of event ids
+     */
+    public ArrayList<String> getSpeakerEventIds(String speakerId) {
+        ArrayList<String> eventIds = new ArrayList<>();
+        Timeline timeline = speakerIndex.get(speakerId);
+        if (timeline != null) {
+            for (int i = 0; i < timeline.size; i++) {
+                eventIds.add(timeline.events[i].getId());
+            }
+        }
+        return eventIds;
+    }
+
+    private void put(Map<String, Timeline> index, String key, Event event) {
+        index.computeIfAbsent(key, k -> new Timeline()).add(event);
+    }
+
+    private void take(Map<String, Timeline> index, String key, Event event) {
+        Timeline timeline = index.get(key);
+        if (timeline != null && timeline.remove(event) && timeline.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * The Events of one room or speaker in an array sorted by their start minute.
+     */
+    private static class Timeline {
+        private Event[] events = new Event[4];
+        private int size = 0;
+        // Only ever grows, so that the search window below always covers every Event that may overlap
+        private int longest = 0;
+
+        void add(Event event) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+            }
+            int i = this.firstStartingAfter(event.getStartMinute());
+            System.arraycopy(events, i, events, i + 1, size - i);
+            events[i] = event;
+            size++;
+            longest = Math.max(longest, event.getDuration());
+        }
+
+        boolean remove(Event event) {
+            for (int i = this.firstStartingAfter(event.getStartMinute() - 1); i < size; i++) {
+                if (events[i] == event) {
+                    System.arraycopy(events, i + 1, events, i, size - i - 1);
+                    events[--size] = null;
+                    return true;
+                }
+                if (events[i].getStartMinute() > event.getStartMinute()) {
+                    break;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Only Events starting in (start - longest, end) can overlap [start, end).
+         */
+        boolean overlaps(long start, long end, String eventId) {
+            for (int i = this.firstStartingAfter(start - longest); i < size; i++) {
+                Event e = events[i];
+                if (e.getStartMinute() >= end) {
+                    break;
+                }
+                if (e.getEndMinute() > start && !e.getId().equals(eventId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Binary search for the position of the first Event starting strictly after the given minute.
+         */
+        private int firstStartingAfter(long minute) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (events[mid].getStartMinute() <= minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
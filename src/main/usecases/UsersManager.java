@@ -2,14 +2,19 @@ package main.usecases;
 
 import main.entities.User;
 import main.gateways.Gateway;
+import main.gateways.GatewayWriter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The UsersManager holds a list of users and modifies info for ...
+ * It is thread-safe, and a username can only be taken once even if several users register at the same time.
  *
  * @author Leyi(Amanda) Wang, David Zhao
  * @version 1.0
@@ -17,16 +22,25 @@ import java.util.Map;
  */
 
 public class UsersManager {
-    private Map<String, User> registeredUsers;
+    private final Map<String, User> registeredUsers;
+    private final Map<String, User> usersByUsername;
+    // type of user -> ids of the users of that type
+    private final Map<String, Set<String>> usersByType;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final AtomicLong version = new AtomicLong(); // bumped after every user added or removed
 
     public UsersManager() {
-        registeredUsers = new HashMap<>();
+        registeredUsers = new ConcurrentHashMap<>();
+        usersByUsername = new ConcurrentHashMap<>();
+        usersByType = new ConcurrentHashMap<>();
     }
 
     public UsersManager(List<User> userList) {
-        registeredUsers = new HashMap<>();
+        registeredUsers = new ConcurrentHashMap<>();
+        usersByUsername = new ConcurrentHashMap<>();
+        usersByType = new ConcurrentHashMap<>();
         for (User user : userList) {
-            registeredUsers.put(user.getId(), user);
+            this.addUser(user);
         }
     }
 
@@ -41,12 +55,11 @@ public class UsersManager {
     }
 
     public String getIDFromUsername(String username) {
-        for (User user : registeredUsers.values()) {
-            if (user.getUsername().equals(username)) {
-                return user.getId();
-            }
+        User user = usersByUsername.get(username);
+        if (user == null) {
+            return "";
         }
-        return "";
+        return user.getId();
     }
 
 
@@ -58,10 +71,9 @@ public class UsersManager {
      * @return check for authentication of user
      */
     public String authenticateUser(String username, String password) {
-        for (User user : registeredUsers.values()) {
-            if (user.getUsername().equals(username) & user.getPassword().equals(password)) {
-                return user.getId();
-            }
+        User user = usersByUsername.get(username);
+        if (user != null && user.getPassword().equals(password)) {
+            return user.getId();
         }
         return null;
     }
@@ -74,8 +86,11 @@ public class UsersManager {
      * @return whether user is removed
      */
     public boolean removeUserbyID(String userId) {
-        if (registeredUsers.containsKey(userId)){
-            registeredUsers.remove(userId);
+        User user = registeredUsers.remove(userId);
+        if (user != null){
+            usersByUsername.remove(user.getUsername(), user);
+            this.removeFromType(user);
+            changes.markRemoved(userId);
             return true;
         }
         return false;
@@ -88,11 +103,12 @@ public class UsersManager {
      * @return whether user is removed
      */
     public boolean removeUserbyUsername(String username) {
-        for (User user : registeredUsers.values()) {
-            if (user.getUsername().equals(username)){
-                registeredUsers.remove(user.getId());
-                return true;
-            }
+        User user = usersByUsername.remove(username);
+        if (user != null){
+            registeredUsers.remove(user.getId());
+            this.removeFromType(user);
+            changes.markRemoved(user.getId());
+            return true;
         }
         return false;
     }
@@ -111,7 +127,13 @@ public class UsersManager {
         }
         UserFactory userFactory = new UserFactory();
         User user = userFactory.getUser(username, password, userType);
+        // taking the username is what decides between two users registering it at the same time
+        if (usersByUsername.putIfAbsent(username, user) != null) {
+            return false;
+        }
         registeredUsers.put(user.getId(), user);
+        this.addToType(user);
+        changes.markChanged(user.getId());
         return true;
     }
 
@@ -121,7 +143,13 @@ public class UsersManager {
      * @param user A User object
      */
     public void addUser(User user) {
-        registeredUsers.put(user.getId(), user);
+        User replaced = registeredUsers.put(user.getId(), user);
+        if (replaced != null) {
+            this.removeFromType(replaced);
+        }
+        usersByUsername.put(user.getUsername(), user);
+        this.addToType(user);
+        changes.markChanged(user.getId());
     }
 
     /**
@@ -132,12 +160,7 @@ public class UsersManager {
      * @return whether there is a conflict
      */
     public boolean checkConflicts(String userName) {
-        for (User user : registeredUsers.values()) {
-            if (user.getUsername().equals(userName)) {
-                return true;
-            }
-        }
-        return false;
+        return usersByUsername.containsKey(userName);
     }
 
 
@@ -194,6 +217,57 @@ public class UsersManager {
         return allUsers;
     }
 
+    /**
+     * Returns the ids of the users of a type, without going through every user
+     *
+     * @param userType Attendee, Speaker, Organizer or Admin
+     * @return a read-only view of the ids, which follows users being added and removed
+     */
+    public Set<String> getUsersOfType(String userType) {
+        Set<String> ids = usersByType.get(userType);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Returns how many users are of a type
+     *
+     * @param userType Attendee, Speaker, Organizer or Admin
+     * @return the number of users of that type
+     */
+    public int countUsersOfType(String userType) {
+        return this.getUsersOfType(userType).size();
+    }
+
+    /**
+     * Returns the types that users have been registered with
+     */
+    public Set<String> getUserTypes() {
+        return Collections.unmodifiableSet(usersByType.keySet());
+    }
+
+    /**
+     * Returns a number that changes whenever a user is added or removed, so that what was looked up from the users,
+     * such as an EventView, can tell it is out of date without checking every user again.
+     *
+     * @return the version of the registered users
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void addToType(User user) {
+        usersByType.computeIfAbsent(user.getType(), type -> ConcurrentHashMap.newKeySet()).add(user.getId());
+        version.incrementAndGet();
+    }
+
+    private void removeFromType(User user) {
+        Set<String> ids = usersByType.get(user.getType());
+        if (ids != null) {
+            ids.remove(user.getId());
+        }
+        version.incrementAndGet();
+    }
+
     public ArrayList<String> allUsersToString() {
         List<String> userIDs = this.getAllUsers();
         ArrayList<String> users = new ArrayList<>();
@@ -219,11 +293,15 @@ public class UsersManager {
      * @param gateway An implementation of the Gateway interface
      */
     public void loadUsersFromGateway(Gateway gateway) {
-        registeredUsers = new HashMap<>();
+        registeredUsers.clear();
+        usersByUsername.clear();
+        usersByType.clear();
+        version.incrementAndGet();
         List<User> loadedUsers = gateway.loadUsers();
         for (User user : loadedUsers) {
-            registeredUsers.put(user.getId(), user);
+            this.addUser(user);
         }
+        changes.clear();
     }
 
     /**
@@ -231,10 +309,41 @@ public class UsersManager {
      *
      * @param gateway An implementation of the Gateway interface
      */
-    public void saveUsersToGateway(Gateway gateway) {
+    public void saveUsersToGateway(GatewayWriter gateway) {
+        ChangeTracker saved = changes.drain();
         List<User> userList = new ArrayList<>();
         userList.addAll(registeredUsers.values());
-        gateway.saveUsers(userList);
+        try {
+            gateway.saveUsers(userList);
+        } catch (RuntimeException e) {
+            changes.restore(saved);
+            throw e;
+        }
+    }
+
+    /**
+     * Saves only the users added or removed since the last load or save to a specified gateway
+     *
+     * @param gateway An implementation of the Gateway interface
+     */
+    public void saveUserChangesToGateway(GatewayWriter gateway) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ChangeTracker saved = changes.drain();
+        List<User> userList = new ArrayList<>();
+        for (String userId : saved.getChanged()) {
+            User user = registeredUsers.get(userId);
+            if (user != null) {
+                userList.add(user);
+            }
+        }
+        try {
+            gateway.saveUserChanges(userList, saved.getRemoved());
+        } catch (RuntimeException e) {
+            changes.restore(saved);
+            throw e;
+        }
     }
 
     /**
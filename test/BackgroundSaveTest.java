@@ -0,0 +1,78 @@
+import main.controllers.ProgramController;
+import main.entities.User;
+import main.gateways.GatewayException;
+import main.gateways.sqlgateway.SQLiteGateway;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BackgroundSaveTest {
+    Path dir;
+    String dbPath;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("background-save-test");
+        dbPath = dir.resolve("app.db").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * A gateway whose first save of user changes fails
+     */
+    private static class FailingOnceGateway extends SQLiteGateway {
+        boolean failed = false;
+
+        FailingOnceGateway(String path) {
+            super(path);
+        }
+
+        @Override
+        public synchronized void saveUserChanges(List<User> users, List<String> removedIds) {
+            if (!failed) {
+                failed = true;
+                throw new GatewayException("disk full", null);
+            }
+            super.saveUserChanges(users, removedIds);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedWriteIsRetried() {
+        FailingOnceGateway gateway = new FailingOnceGateway(dbPath);
+        ProgramController program = new ProgramController(gateway);
+        program.startUI();
+
+        Assert.assertTrue(program.getUsersManager().addUser("first@x.com", "12345", "Attendee"));
+        program.saveForNext();
+        program.flush();
+        Assert.assertTrue(gateway.failed);
+
+        Assert.assertTrue(program.getUsersManager().addUser("second@x.com", "12345", "Attendee"));
+        program.saveForNext();
+        program.flush();
+        program.shutdown();
+
+        SQLiteGateway reloaded = new SQLiteGateway(dbPath);
+        List<String> usernames = new ArrayList<>();
+        for (User user : reloaded.loadUsers()) {
+            usernames.add(user.getUsername());
+        }
+        reloaded.close();
+        Assert.assertTrue(usernames.contains("first@x.com"));
+        Assert.assertTrue(usernames.contains("second@x.com"));
+    }
+}
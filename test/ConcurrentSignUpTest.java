@@ -0,0 +1,107 @@
+import main.usecases.EventBuilder;
+import main.usecases.EventInfoManager;
+import main.usecases.EventsManager;
+import main.usecases.UsersManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentSignUpTest {
+    static final int THREADS = 64;
+    static final int CAPACITY = 50;
+    EventsManager eventsManager;
+    String eventId;
+
+    @Before
+    public void setUp() {
+        this.eventsManager = new EventsManager();
+        EventBuilder eb = new EventBuilder();
+        eb.setTitle("Keynote");
+        eb.setTime(LocalDateTime.of(2020, 10, 10, 10, 0));
+        eb.setRoom("0");
+        eb.setDuration(60);
+        eb.setCapacity(CAPACITY);
+        Assert.assertTrue(eventsManager.scheduleEvent(eb, "NoSpeakerEvent"));
+        eventId = eventsManager.getEvents().get(0).getId();
+    }
+
+    /**
+     * Runs a task on THREADS threads, all started at the same moment
+     */
+    private void runConcurrently(int tasksPerThread, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tasksPerThread; i++) {
+                    task.run(thread * tasksPerThread + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private interface IntTask {
+        void run(int i);
+    }
+
+    @Test
+    public void testNoOverbooking() throws Exception {
+        AtomicInteger signedUp = new AtomicInteger();
+        runConcurrently(20, i -> {
+            if (new EventInfoManager(eventId, eventsManager).addUser("user" + i)) {
+                signedUp.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(CAPACITY, signedUp.get());
+        Assert.assertEquals(CAPACITY, eventsManager.getSchedule().get(eventId).getAttendeeCount());
+        for (String userId : eventsManager.getSchedule().get(eventId).getAttendeeSet()) {
+            Assert.assertEquals(1, eventsManager.getUserEvents(userId).size());
+        }
+    }
+
+    @Test
+    public void testSignUpAndCancelSeats() throws Exception {
+        // every thread keeps signing up and cancelling, the event must never be over capacity
+        AtomicInteger overbooked = new AtomicInteger();
+        runConcurrently(200, i -> {
+            String userId = "user" + (i % (2 * CAPACITY));
+            EventInfoManager eventInfoManager = new EventInfoManager(eventId, eventsManager);
+            if (eventInfoManager.addUser(userId)) {
+                if (eventInfoManager.getEvent().getAttendeeCount() > CAPACITY) {
+                    overbooked.incrementAndGet();
+                }
+                eventInfoManager.removeUser(userId);
+            }
+        });
+        Assert.assertEquals(0, overbooked.get());
+        Assert.assertEquals(0, eventsManager.getSchedule().get(eventId).getAttendeeCount());
+    }
+
+    @Test
+    public void testUsernameTakenOnce() throws Exception {
+        UsersManager usersManager = new UsersManager();
+        AtomicInteger registered = new AtomicInteger();
+        runConcurrently(10, i -> {
+            if (usersManager.addUser("user" + (i % 10), "pw", "Attendee")) {
+                registered.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(10, registered.get());
+        Assert.assertEquals(10, usersManager.getAllUsers().size());
+    }
+}
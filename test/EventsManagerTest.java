@@ -1,5 +1,10 @@
 import main.entities.Event;
+import main.usecases.EventBuilder;
+import main.usecases.EventInfoManager;
+import main.usecases.EventView;
 import main.usecases.EventsManager;
+import main.usecases.RoomManager;
+import main.usecases.UsersManager;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -36,6 +41,119 @@ public class EventsManagerTest {
         event2 = new Event("hi", time2, "0", 40, 40);
         event3 = new Event("bye", time3, "0", 60, 40);
     }
+
+    public EventBuilder setUpEvent(String title, LocalDateTime time, String roomID, int duration) {
+        EventBuilder eb = new EventBuilder();
+        eb.setTitle(title);
+        eb.setTime(time);
+        eb.setRoom(roomID);
+        eb.setDuration(duration);
+        eb.setCapacity(10);
+        return eb;
+    }
+
+    @Test
+    public void testScheduleRoomConflict() {
+        Assert.assertTrue(eventsManager.scheduleEvent(setUpEvent("Event1", time1, "0", 60), "NoSpeakerEvent"));
+        // overlaps in the same room
+        Assert.assertFalse(eventsManager.scheduleEvent(setUpEvent("Event2", time2, "0", duration1), "NoSpeakerEvent"));
+        // same time in another room
+        Assert.assertTrue(eventsManager.scheduleEvent(setUpEvent("Event3", time1, "1", 60), "NoSpeakerEvent"));
+        // starts right when Event1 ends
+        Assert.assertTrue(eventsManager.scheduleEvent(setUpEvent("Event4", time1.plusHours(1), "0", 60), "NoSpeakerEvent"));
+        // outside of 9A.M to 5P.M
+        Assert.assertFalse(eventsManager.scheduleEvent(setUpEvent("Event5", time4, "2", duration4), "NoSpeakerEvent"));
+    }
+
+    @Test
+    public void testRemoveEventFreesRoom() {
+        Assert.assertTrue(eventsManager.scheduleEvent(setUpEvent("Event1", time1, "0", 60), "NoSpeakerEvent"));
+        String eventId = eventsManager.getEvents().get(0).getId();
+        Assert.assertTrue(eventsManager.removeEvent(eventId));
+        Assert.assertTrue(eventsManager.scheduleEvent(setUpEvent("Event2", time1, "0", 60), "NoSpeakerEvent"));
+    }
+
+    @Test
+    public void testUpdateEventInfoConflict() {
+        eventsManager.scheduleEvent(setUpEvent("Event1", time1, "0", 60), "OneSpeakerEvent");
+        eventsManager.scheduleEvent(setUpEvent("Event2", time3, "1", 60), "OneSpeakerEvent");
+        String e1 = eventsManager.getEvents().get(0).getId();
+        String e2 = eventsManager.getEvents().get(1).getId();
+        // room taken by Event1
+        EventInfoManager eim2 = new EventInfoManager(e2, eventsManager);
+        Assert.assertFalse(eim2.updateEventInfo(time1, "0", 60, 10));
+        // moving Event1 frees its old slot
+        EventInfoManager eim1 = new EventInfoManager(e1, eventsManager);
+        Assert.assertTrue(eim1.updateEventInfo(time1.plusHours(2), "0", 60, 10));
+        Assert.assertTrue(eim2.updateEventInfo(time1, "0", 60, 10));
+        // the same speaker cannot be at two events at once
+        Assert.assertTrue(eim1.addSpeaker("speaker"));
+        Assert.assertTrue(eim2.addSpeaker("speaker"));
+        Assert.assertFalse(eim2.updateEventInfo(time1.plusHours(2), "1", 60, 10));
+        Assert.assertTrue(eim1.removeSpeaker("speaker"));
+        Assert.assertTrue(eim2.updateEventInfo(time1.plusHours(2), "1", 60, 10));
+    }
+
+    @Test
+    public void testUserEvents() {
+        eventsManager.scheduleEvent(setUpEvent("Event1", time1, "0", 60), "NoSpeakerEvent");
+        eventsManager.scheduleEvent(setUpEvent("Event2", time3, "0", 60), "NoSpeakerEvent");
+        String e1 = eventsManager.getEvents().get(0).getId();
+        String e2 = eventsManager.getEvents().get(1).getId();
+        Assert.assertTrue(new EventInfoManager(e1, eventsManager).addUser("user1"));
+        Assert.assertTrue(new EventInfoManager(e2, eventsManager).addUser("user1"));
+        Assert.assertFalse(new EventInfoManager(e2, eventsManager).addUser("user1"));
+        Assert.assertEquals(Arrays.asList(e1, e2), eventsManager.getUserEvents("user1"));
+        Assert.assertTrue(new EventInfoManager(e1, eventsManager).removeUser("user1"));
+        Assert.assertEquals(Collections.singletonList(e2), eventsManager.getUserEvents("user1"));
+        Assert.assertTrue(eventsManager.removeEvent(e2));
+        Assert.assertTrue(eventsManager.getUserEvents("user1").isEmpty());
+    }
+
+    @Test
+    public void testSpeakerEvents() {
+        eventsManager.scheduleEvent(setUpEvent("Event1", time1, "0", 60), "OneSpeakerEvent");
+        eventsManager.scheduleEvent(setUpEvent("Event2", time2, "1", 90), "MultiSpeakerEvent");
+        eventsManager.scheduleEvent(setUpEvent("Event3", time3, "1", 60), "MultiSpeakerEvent");
+        String e1 = eventsManager.getEvents().get(0).getId();
+        String e2 = eventsManager.getEvents().get(1).getId();
+        String e3 = eventsManager.getEvents().get(2).getId();
+        Assert.assertTrue(new EventInfoManager(e1, eventsManager).addSpeaker("speaker"));
+        // Event2 overlaps Event1
+        Assert.assertFalse(new EventInfoManager(e2, eventsManager).addSpeaker("speaker"));
+        Assert.assertTrue(new EventInfoManager(e3, eventsManager).addSpeaker("speaker"));
+        // ordered by start time
+        Assert.assertEquals(Arrays.asList(e3, e1), eventsManager.getSpeakerEvents("speaker"));
+        Assert.assertTrue(new EventInfoManager(e1, eventsManager).removeSpeaker("speaker"));
+        Assert.assertTrue(new EventInfoManager(e2, eventsManager).addSpeaker("speaker"));
+        Assert.assertEquals(Arrays.asList(e3, e2), eventsManager.getSpeakerEvents("speaker"));
+    }
+
+    @Test
+    public void testEventViewKeptUntilUsersOrRoomsChange() {
+        RoomManager roomManager = new RoomManager();
+        UsersManager usersManager = new UsersManager();
+        roomManager.addRoom(101, 50);
+        usersManager.addUser("speaker@x.com", "12345", "Speaker");
+        String speakerId = usersManager.getIDFromUsername("speaker@x.com");
+        eventsManager.scheduleEvent(setUpEvent("Event1", time1, roomManager.getRoomIDGivenRoomNum(101), 60),
+                "OneSpeakerEvent");
+        String eventId = eventsManager.getEventIds().get(0);
+        Assert.assertTrue(new EventInfoManager(eventId, eventsManager).addSpeaker(speakerId));
+
+        EventView view = eventsManager.getEventView(eventId, roomManager, usersManager);
+        Assert.assertEquals(101, view.getRoomNum());
+        Assert.assertEquals(Collections.singletonList("speaker@x.com"), view.getSpeakerNames());
+        Assert.assertSame(view, eventsManager.getEventView(eventId, roomManager, usersManager));
+
+        roomManager.addRoom(102, 50);
+        EventView afterRoom = eventsManager.getEventView(eventId, roomManager, usersManager);
+        Assert.assertNotSame(view, afterRoom);
+        Assert.assertSame(afterRoom, eventsManager.getEventView(eventId, roomManager, usersManager));
+
+        usersManager.removeUserbyID(speakerId);
+        Assert.assertTrue(eventsManager.getEventView(eventId, roomManager, usersManager).getSpeakerNames().isEmpty());
+    }
 }
 //    @Test
 //    public void testGetEndTime(){
@@ -135,4 +253,4 @@ public class EventsManagerTest {
 //    }
 //
 //
-//}
+//
@@ -0,0 +1,105 @@
+import main.entities.User;
+import main.gateways.GatewayException;
+import main.gateways.snapshotgateway.JournalGateway;
+import main.usecases.UserFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class JournalGatewayTest {
+    Path dir;
+    Path journal;
+    UserFactory factory = new UserFactory();
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("journal-gateway-test");
+        journal = dir.resolve("journal.log");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    private List<String> usernames(List<User> users) {
+        List<String> usernames = new ArrayList<>();
+        for (User user : users) {
+            usernames.add(user.getUsername());
+        }
+        return usernames;
+    }
+
+    @Test(timeout = 10000)
+    public void testReplayDropsCorruptTail() throws Exception {
+        JournalGateway gateway = new JournalGateway(dir.toString());
+        gateway.saveUsers(Collections.singletonList(factory.getUser("first@x.com", "12345", "Attendee")));
+        gateway.saveUserChanges(Collections.singletonList(factory.getUser("second@x.com", "12345", "Speaker")),
+                Collections.emptyList());
+        gateway.close();
+        long intact = Files.size(journal);
+
+        // an entry torn by a crash: its header promises more bytes than were written
+        ByteBuffer torn = ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7);
+        Files.write(journal, torn.array(), StandardOpenOption.APPEND);
+
+        gateway = new JournalGateway(dir.toString());
+        Assert.assertEquals(Arrays.asList("first@x.com", "second@x.com"), usernames(gateway.loadUsers()));
+
+        // appending cuts the torn entry off first, so the new entry is not hidden behind it
+        gateway.saveUserChanges(Collections.singletonList(factory.getUser("third@x.com", "12345", "Organizer")),
+                Collections.emptyList());
+        gateway.close();
+        Assert.assertTrue(Files.size(journal) > intact);
+
+        gateway = new JournalGateway(dir.toString());
+        Assert.assertEquals(Arrays.asList("first@x.com", "second@x.com", "third@x.com"),
+                usernames(gateway.loadUsers()));
+        gateway.close();
+    }
+
+    @Test(timeout = 10000, expected = GatewayException.class)
+    public void testFailedAppendThrows() throws Exception {
+        // a directory where the journal should be cannot be opened for appending
+        Files.createDirectory(journal);
+        JournalGateway gateway = new JournalGateway(dir.toString());
+        try {
+            gateway.saveUsers(Collections.singletonList(factory.getUser("first@x.com", "12345", "Attendee")));
+        } finally {
+            gateway.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCompactionKeepsEveryTable() throws Exception {
+        JournalGateway gateway = new JournalGateway(dir.toString(), 3);
+        User first = factory.getUser("first@x.com", "12345", "Attendee");
+        User second = factory.getUser("second@x.com", "12345", "Attendee");
+        gateway.saveUsers(Arrays.asList(first, second));
+        Assert.assertEquals(Arrays.asList("first@x.com", "second@x.com"), usernames(gateway.loadUsers()));
+        gateway.saveUserChanges(Collections.emptyList(), Collections.singletonList(first.getId()));
+        Assert.assertEquals(Collections.singletonList("second@x.com"), usernames(gateway.loadUsers()));
+        gateway.saveUserChanges(Collections.singletonList(factory.getUser("third@x.com", "12345", "Speaker")),
+                Collections.emptyList());
+        Assert.assertEquals(0, Files.size(journal));
+        Assert.assertEquals(Arrays.asList("second@x.com", "third@x.com"), usernames(gateway.loadUsers()));
+        gateway.close();
+
+        gateway = new JournalGateway(dir.toString());
+        Assert.assertEquals(Arrays.asList("second@x.com", "third@x.com"), usernames(gateway.loadUsers()));
+        gateway.close();
+    }
+}
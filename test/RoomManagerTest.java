@@ -0,0 +1,40 @@
+import main.gateways.PendingChanges;
+import main.usecases.RoomManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RoomManagerTest {
+
+    @Test(timeout = 10000)
+    public void testClearedConstraintsNoLongerMatch() {
+        RoomManager roomManager = new RoomManager();
+        roomManager.addRoom(101, 20);
+        roomManager.addRoom(102, 30);
+        roomManager.addConstraintToRoom(101, new ArrayList<>(Arrays.asList("Tech", "Stage")));
+        roomManager.addConstraintToRoom(102, new ArrayList<>(Collections.singletonList("Tech")));
+        Assert.assertEquals(Arrays.asList(101, 102),
+                roomManager.getRoomsWithConstraints(Collections.singletonList("Tech")));
+
+        roomManager.addConstraintToRoom(101, new ArrayList<>(Collections.singletonList("None")));
+        Assert.assertEquals(Collections.singletonList(102),
+                roomManager.getRoomsWithConstraints(Collections.singletonList("Tech")));
+        Assert.assertTrue(roomManager.getRoomsWithConstraints(Collections.singletonList("Stage")).isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testClearedConstraintsAreSaved() {
+        RoomManager roomManager = new RoomManager();
+        roomManager.addRoom(101, 20);
+        roomManager.addConstraintToRoom(101, new ArrayList<>(Collections.singletonList("Tech")));
+        roomManager.saveRoomChangesToGateway(new PendingChanges());
+
+        PendingChanges saved = new PendingChanges();
+        roomManager.addConstraintToRoom(101, new ArrayList<>());
+        roomManager.saveRoomChangesToGateway(saved);
+        Assert.assertFalse(saved.isEmpty());
+    }
+}
@@ -0,0 +1,171 @@
+import main.entities.Event;
+import main.entities.Inbox;
+import main.gateways.PendingChanges;
+import main.gateways.sqlgateway.SQLiteGateway;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SQLiteGatewayTest {
+    Path dir;
+    String dbPath;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("sqlite-gateway-test");
+        dbPath = dir.resolve("app.db").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * A database written before the membership tables kept the members of events and inboxes "|"-joined
+     */
+    private void writeLegacyDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE events(id string PRIMARY KEY, title string NOT NULL, time string NOT NULL,"
+                    + " roomId string NOT NULL, speakersId string, attendeesId string, type string NOT NULL,"
+                    + " duration int NOT NULL, capacity int NOT NULL);");
+            stmt.execute("CREATE TABLE inboxes(id string NOT NULL, user string NOT NULL,"
+                    + " messageId string NOT NULL);");
+            stmt.execute("INSERT INTO events VALUES('e1', 'Keynote', '2020-10-10T10:00:00', 'r1', 's1',"
+                    + " 'a1|a2|a3', 'OneSpeakerEvent', 60, 50);");
+            stmt.execute("INSERT INTO inboxes VALUES('i1', 'a1', 'm1|m2|m3');");
+        }
+    }
+
+    private int userVersion() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testMigratesJoinedColumns() throws Exception {
+        writeLegacyDatabase();
+        Assert.assertEquals(0, userVersion());
+
+        SQLiteGateway gateway = new SQLiteGateway(dbPath);
+        List<Event> events = gateway.loadEvents();
+        List<Inbox> inboxes = gateway.loadInboxes();
+        gateway.close();
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(Arrays.asList("a1", "a2", "a3"), events.get(0).getAttendeesID());
+        Assert.assertEquals(Collections.singletonList("s1"), events.get(0).getSpeakers());
+        Assert.assertEquals(1, inboxes.size());
+        Assert.assertEquals(Arrays.asList("m1", "m2", "m3"), inboxes.get(0).getMessages());
+        Assert.assertEquals(1, userVersion());
+
+        // opening the migrated database again must not add the members a second time
+        gateway = new SQLiteGateway(dbPath);
+        Assert.assertEquals(3, gateway.loadEvents().get(0).getAttendeeCount());
+        Assert.assertEquals(3, gateway.loadInboxes().get(0).getMessages().size());
+        gateway.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSavesAppendedInboxMessages() {
+        SQLiteGateway gateway = new SQLiteGateway(dbPath);
+        Inbox inbox = new Inbox("a1");
+        inbox.addMessage("m1");
+        inbox.addMessage("m2");
+        gateway.saveInboxChanges(Collections.singletonList(inbox), Collections.emptyList());
+        inbox.addMessage("m3");
+        gateway.saveInboxChanges(Collections.singletonList(inbox), Collections.emptyList());
+
+        List<Inbox> inboxes = gateway.findInboxesOfUser("a1");
+        Assert.assertEquals(1, inboxes.size());
+        Assert.assertEquals(Arrays.asList("m1", "m2", "m3"), inboxes.get(0).getMessages());
+
+        gateway.saveInboxChanges(Collections.emptyList(), Collections.singletonList(inbox.getId()));
+        Assert.assertTrue(gateway.loadInboxes().isEmpty());
+        gateway.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSavesChangedEventMembers() {
+        SQLiteGateway gateway = new SQLiteGateway(dbPath);
+        Event event = new Event("Keynote", LocalDateTime.of(2020, 10, 10, 10, 0), "r1", "OneSpeakerEvent", 60, 50);
+        event.addSpeaker("s1");
+        event.addAttendees("a1");
+        event.addAttendees("a2");
+        gateway.saveEventChanges(Collections.singletonList(event), Collections.emptyList());
+        event.removeAttendees("a1");
+        event.addAttendees("a3");
+        event.addAttendees("a1");
+        event.removeSpeaker("s1");
+        event.addSpeaker("s2");
+        gateway.saveEventChanges(Collections.singletonList(event), Collections.emptyList());
+
+        Event loaded = gateway.loadEvents().get(0);
+        Assert.assertEquals(Arrays.asList("a2", "a3", "a1"), loaded.getAttendeesID());
+        Assert.assertEquals(Collections.singletonList("s2"), loaded.getSpeakers());
+
+        gateway.saveEventChanges(Collections.emptyList(), Collections.singletonList(event.getId()));
+        Assert.assertTrue(gateway.loadEvents().isEmpty());
+        gateway.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSavesEventMembersChangedThroughPendingChanges() {
+        SQLiteGateway gateway = new SQLiteGateway(dbPath);
+        Event event = new Event("Keynote", LocalDateTime.of(2020, 10, 10, 10, 0), "r1", 60, 50);
+        event.addAttendees("a1");
+        event.addAttendees("a2");
+        PendingChanges pending = new PendingChanges();
+        pending.saveEventChanges(Collections.singletonList(event), Collections.emptyList());
+        pending.applyTo(gateway);
+
+        // two saves coalesced into one write keep the member changes of both
+        pending = new PendingChanges();
+        event.removeAttendees("a1");
+        pending.saveEventChanges(Collections.singletonList(event), Collections.emptyList());
+        event.addAttendees("a3");
+        pending.saveEventChanges(Collections.singletonList(event), Collections.emptyList());
+        pending.applyTo(gateway);
+
+        Assert.assertEquals(Arrays.asList("a2", "a3"), gateway.loadEvents().get(0).getAttendeesID());
+        gateway.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testFindsInboxesOfSeveralUsers() {
+        SQLiteGateway gateway = new SQLiteGateway(dbPath);
+        Inbox first = new Inbox("a1");
+        first.addMessage("m1");
+        Inbox second = new Inbox("a2");
+        second.addMessage("m1");
+        second.addMessage("m2");
+        gateway.saveInboxChanges(Arrays.asList(first, second, new Inbox("a3")), Collections.emptyList());
+
+        List<Inbox> inboxes = gateway.findInboxesOfUsers(Arrays.asList("a1", "a2", "nobody"));
+        Assert.assertEquals(2, inboxes.size());
+        for (Inbox inbox : inboxes) {
+            Assert.assertEquals(inbox.getUser().equals("a1") ? first.getMessages() : second.getMessages(),
+                    inbox.getMessages());
+        }
+        gateway.close();
+    }
+}
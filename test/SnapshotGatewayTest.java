@@ -0,0 +1,87 @@
+import main.entities.Event;
+import main.entities.Message;
+import main.entities.User;
+import main.gateways.snapshotgateway.SnapshotGateway;
+import main.usecases.UserFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SnapshotGatewayTest {
+    Path dir;
+    SnapshotGateway gateway;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("snapshot-gateway-test");
+        gateway = new SnapshotGateway(dir.toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Test(timeout = 10000)
+    public void testRoundTrip() {
+        Event event = new Event("Keynote", LocalDateTime.of(2020, 10, 10, 10, 0), "r1", "OneSpeakerEvent", 60, 50);
+        event.addAttendees("a1");
+        event.addAttendees("a2");
+        event.addSpeaker("s1");
+        Message message = new Message("héllo, world", "a1");
+        message.setTime(LocalDateTime.of(2020, 10, 9, 8, 7, 6));
+        gateway.saveEvents(Collections.singletonList(event));
+        gateway.saveMessages(Collections.singletonList(message));
+
+        List<Event> events = gateway.loadEvents();
+        Assert.assertEquals(1, events.size());
+        Event loaded = events.get(0);
+        Assert.assertEquals(event.getId(), loaded.getId());
+        Assert.assertEquals("Keynote", loaded.getTitle());
+        Assert.assertEquals(event.getTime(), loaded.getTime());
+        Assert.assertEquals("r1", loaded.getRoomID());
+        Assert.assertEquals("OneSpeakerEvent", loaded.getType());
+        Assert.assertEquals(60, loaded.getDuration());
+        Assert.assertEquals(50, loaded.getCapacity());
+        Assert.assertEquals(Arrays.asList("a1", "a2"), loaded.getAttendeesID());
+        Assert.assertEquals(Collections.singletonList("s1"), loaded.getSpeakers());
+
+        List<Message> messages = gateway.loadMessages();
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("héllo, world", messages.get(0).getText());
+        Assert.assertEquals("a1", messages.get(0).getSender());
+        Assert.assertEquals(message.getTime(), messages.get(0).getTime());
+    }
+
+    @Test(timeout = 10000)
+    public void testSaveChangesReplacesLoadedFile() {
+        UserFactory factory = new UserFactory();
+        User first = factory.getUser("first@x.com", "12345", "Attendee");
+        User second = factory.getUser("second@x.com", "12345", "Speaker");
+        gateway.saveUsers(Arrays.asList(first, second));
+        // loading maps the file, which the save of the changes then replaces
+        Assert.assertEquals(2, gateway.loadUsers().size());
+
+        User third = factory.getUser("third@x.com", "12345", "Organizer");
+        first.setPassword("54321");
+        gateway.saveUserChanges(Arrays.asList(first, third), Collections.singletonList(second.getId()));
+
+        List<User> users = gateway.loadUsers();
+        Assert.assertEquals(2, users.size());
+        Assert.assertEquals(first.getId(), users.get(0).getId());
+        Assert.assertEquals("54321", users.get(0).getPassword());
+        Assert.assertEquals("third@x.com", users.get(1).getUsername());
+        Assert.assertEquals("Organizer", users.get(1).getType());
+    }
+}
@@ -0,0 +1,167 @@
+package main.httpapi;
+
+import main.controllers.ProgramController;
+import main.gateways.sqlgateway.SQLiteGateway;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ApiServerTest {
+    Path dir;
+    ProgramController program;
+    ApiServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("api-server-test");
+        program = new ProgramController(new SQLiteGateway(dir.resolve("app.db").toString()));
+        program.startUI();
+        program.getAuthController().registerUser("organizer@x.com", "12345", "Organizer");
+        program.getRoomManager().addRoom(101, 50);
+        server = new ApiServer(program, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        program.shutdown();
+        for (Path file : Files.list(dir).toArray(Path[]::new)) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * The status and the JSON body of a response, a body that is not an object is kept under "value"
+     */
+    private static class Response {
+        final int status;
+        final Map<String, Object> body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = Json.readObject(body.startsWith("{") ? body : "{\"value\":" + body + "}");
+        }
+    }
+
+    private Response send(String method, String path, String token, String body) throws IOException {
+        URL url = new URL("http://localhost:" + server.getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return new Response(status, bytes.toString("UTF-8"));
+    }
+
+    private static String credentials(String username, String password) {
+        return "{\"username\": \"" + username + "\", \"password\": \"" + password + "\"}";
+    }
+
+    private String login(String username) throws IOException {
+        Response response = send("POST", "/api/auth/login", null, credentials(username, "12345"));
+        Assert.assertEquals(200, response.status);
+        return (String) response.body.get("token");
+    }
+
+    @Test(timeout = 10000)
+    public void testRegisterAndLogin() throws Exception {
+        Assert.assertEquals(200, send("POST", "/api/auth/register", null, credentials("a@x.com", "12345")).status);
+        Assert.assertEquals(409, send("POST", "/api/auth/register", null, credentials("a@x.com", "12345")).status);
+        Assert.assertEquals(400, send("POST", "/api/auth/register", null, "{\"username\": \"b@x.com\"}").status);
+        Assert.assertEquals(400, send("POST", "/api/auth/register", null, "{\"username\": ").status);
+        Assert.assertEquals(405, send("GET", "/api/auth/register", null, null).status);
+        Assert.assertEquals(404, send("POST", "/api/auth/nothing", null, "{}").status);
+        Assert.assertEquals(401, send("POST", "/api/auth/login", null, credentials("a@x.com", "54321")).status);
+
+        String token = login("a@x.com");
+        Response me = send("GET", "/api/auth/me", token, null);
+        Assert.assertEquals("a@x.com", me.body.get("username"));
+        Assert.assertEquals("Attendee", me.body.get("type"));
+
+        Assert.assertEquals(200, send("POST", "/api/auth/logout", token, null).status);
+        Assert.assertEquals(401, send("GET", "/api/auth/me", token, null).status);
+    }
+
+    @Test(timeout = 10000)
+    public void testSignUp() throws Exception {
+        send("POST", "/api/auth/register", null, credentials("a@x.com", "12345"));
+        String attendee = login("a@x.com");
+        String organizer = login("organizer@x.com");
+        String event = "{\"title\": \"Keynote\", \"time\": \"2020-12-01T10:00\", \"room\": 101, \"duration\": 60,"
+                + " \"capacity\": 1, \"type\": \"NoSpeakerEvent\"}";
+        Assert.assertEquals(403, send("POST", "/api/events", attendee, event).status);
+        Assert.assertEquals(200, send("POST", "/api/events", organizer, event).status);
+
+        List<?> events = (List<?>) send("GET", "/api/events", attendee, null).body.get("value");
+        Assert.assertEquals(1, events.size());
+        String eventId = (String) ((Map<?, ?>) events.get(0)).get("id");
+        Assert.assertEquals(200, send("POST", "/api/events/" + eventId + "/signup", attendee, null).status);
+        Assert.assertEquals(409, send("POST", "/api/events/" + eventId + "/signup", organizer, null).status);
+        Assert.assertEquals(404, send("POST", "/api/events/nothing/signup", attendee, null).status);
+        Assert.assertEquals(401, send("POST", "/api/events/" + eventId + "/signup", null, null).status);
+
+        List<?> mine = (List<?>) send("GET", "/api/events/mine", attendee, null).body.get("value");
+        Assert.assertEquals(1, mine.size());
+        Assert.assertEquals(0.0, ((Map<?, ?>) mine.get(0)).get("seatsLeft"));
+    }
+
+    @Test(timeout = 10000)
+    public void testMessageAndInbox() throws Exception {
+        send("POST", "/api/auth/register", null, credentials("a@x.com", "12345"));
+        send("POST", "/api/auth/register", null, credentials("b@x.com", "12345"));
+        String sender = login("a@x.com");
+        String text = "Say \\\"hi\\\" \\\\ \\n\\t\\u00e9";
+        Response sent = send("POST", "/api/messages", sender,
+                "{\"receiver\": \"b@x.com\", \"text\": \"" + text + "\"}");
+        Assert.assertEquals(200, sent.status);
+
+        Map<String, Object> inbox = send("GET", "/api/inbox", login("b@x.com"), null).body;
+        Assert.assertEquals(1, inbox.size());
+        Assert.assertTrue(((String) inbox.values().iterator().next()).startsWith("a@x.com: Say \"hi\" \\ \n\té"));
+        Assert.assertTrue(send("GET", "/api/inbox", sender, null).body.isEmpty());
+
+        Assert.assertEquals(401, send("GET", "/api/inbox", null, null).status);
+        Assert.assertEquals(403, send("POST", "/api/messages", sender,
+                "{\"receiver\": \"organizer@x.com\", \"text\": \"hi\"}").status);
+        Assert.assertEquals(403, send("POST", "/api/messages", sender,
+                "{\"receiver\": \"a@x.com\", \"text\": \"hi\"}").status);
+        Assert.assertEquals(404, send("POST", "/api/messages", sender,
+                "{\"receiver\": \"nobody@x.com\", \"text\": \"hi\"}").status);
+        Assert.assertEquals(400, send("POST", "/api/messages", sender, "{\"receiver\": \"b@x.com\"}").status);
+
+        String large = String.join("", Collections.nCopies(70 * 1024, "x"));
+        Assert.assertEquals(413, send("POST", "/api/messages", sender,
+                "{\"receiver\": \"b@x.com\", \"text\": \"" + large + "\"}").status);
+    }
+}
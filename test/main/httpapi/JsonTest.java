@@ -0,0 +1,53 @@
+package main.httpapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class JsonTest {
+
+    @Test(timeout = 10000)
+    public void testStringEscapesRoundTrip() {
+        String text = "quote \" backslash \\ slash / newline \n return \r tab \t bell \u0007 accent é emoji 😀";
+        Map<String, Object> object = Collections.singletonMap("text", text);
+        String json = Json.write(object);
+        Assert.assertFalse(json.contains("\n"));
+        Assert.assertEquals(object, Json.readObject(json));
+    }
+
+    @Test(timeout = 10000)
+    public void testNestedValuesRoundTrip() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("list", Arrays.asList(1.5, "two", true, null, Collections.emptyList()));
+        inner.put("empty", Collections.emptyMap());
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("inner", inner);
+        object.put("items", Arrays.asList(Collections.singletonMap("a", -2.0), Arrays.asList(3.0, Arrays.asList())));
+        object.put("flag", false);
+
+        Assert.assertEquals(object, Json.readObject(Json.write(object)));
+    }
+
+    @Test(timeout = 10000)
+    public void testReadsWhitespaceAndUnicodeEscapes() {
+        Map<String, Object> object = Json.readObject(" {\n \"a\" : [ 1 , 2e1 ] , \"b\" : \"\\u0041\\/\" }\t");
+        Assert.assertEquals(Arrays.asList(1.0, 20.0), object.get("a"));
+        Assert.assertEquals("A/", object.get("b"));
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectsMalformedText() {
+        for (String text : Arrays.asList("", "[]", "{\"a\": }", "{\"a\": 1", "{\"a\": \"unterminated}", "{} x")) {
+            try {
+                Json.readObject(text);
+                Assert.fail("Read " + text);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}